@@ -118,7 +118,7 @@ public class CalcudokuApplication {
 		sb.append("Ayuda:\n");
 		sb.append("Pasar tres argumentos: arhivoDeEntrada.json estrategia heuristica\n");
 		sb.append("archivo de entrada: pasar path\n");
-		sb.append("estrategia: dfs | bfs | iddfs | a_star |greedy\n");
+		sb.append("estrategia: dfs | bfs | iddfs | a_star | ida_star | sma_star | weighted_a_star | ara_star | beam | greedy\n");
 		sb.append("heuristica:\n");
 		for(int i = 0 ; i < heuristics.size(); i++){
 			sb.append(String.format("%d - %s\n",i,heuristicName(heuristics.get(i))));
@@ -141,6 +141,11 @@ public class CalcudokuApplication {
 			case "bfs": return SearchStrategy.BFS;
 			case "iddfs": return SearchStrategy.IDDFS;
 			case "a_star": return SearchStrategy.A_STAR;
+			case "ida_star": return SearchStrategy.IDA_STAR;
+			case "sma_star": return SearchStrategy.SMA_STAR;
+			case "weighted_a_star": return SearchStrategy.WEIGHTED_A_STAR;
+			case "ara_star": return SearchStrategy.ARA_STAR;
+			case "beam": return SearchStrategy.BEAM;
 			case "greedy": return SearchStrategy.GREEDY;
 			default: return null;
 		}
@@ -9,8 +9,8 @@ import java.util.Optional;
 import ar.itba.edu.sia.tp1.calcudoku.domain.Board;
 import ar.itba.edu.sia.tp1.calcudoku.domain.Position;
 import ar.itba.edu.sia.tp1.calcudoku.heuristic.CalcudokuHeuristic;
+import ar.itba.edu.sia.tp1.gps.GPSCompactKeyProblem;
 import ar.itba.edu.sia.tp1.gps.GPSHeuristic;
-import ar.itba.edu.sia.tp1.gps.GPSProblem;
 import ar.itba.edu.sia.tp1.gps.ProblemParser;
 
 /**
@@ -18,7 +18,7 @@ import ar.itba.edu.sia.tp1.gps.ProblemParser;
  */
 public class CalcudokuProblem
 		implements
-			GPSProblem<CalcudokuRule, CalcudokuState> {
+			GPSCompactKeyProblem<CalcudokuRule, CalcudokuState> {
 	private final CalcudokuState initialState;
 	private final List<CalcudokuRule> rules;
 	private final Optional<GPSHeuristic<CalcudokuState>> heuristic;
@@ -66,6 +66,12 @@ public class CalcudokuProblem
 		return initialState;
 	}
 
+	@Override
+	public CalcudokuState getState(long compactKey) {
+		return new CalcudokuState(initialState.getBoard().withCompactKey(
+				compactKey));
+	}
+
 	@Override
 	public boolean isGoal(CalcudokuState state) {
 		return state.isValid();
@@ -76,6 +82,11 @@ public class CalcudokuProblem
 		return rules;
 	}
 
+	@Override
+	public Optional<GPSHeuristic<CalcudokuState>> getHeuristic() {
+		return heuristic;
+	}
+
 	@Override
 	public int getHValue(CalcudokuState state) {
 		if (heuristic.isPresent()) {
@@ -84,6 +95,16 @@ public class CalcudokuProblem
 		return -1;
 	}
 
+	@Override
+	public int getHValue(CalcudokuState parentState, int parentHValue,
+			CalcudokuRule rule, CalcudokuState state) {
+		if (heuristic.isPresent()) {
+			return heuristic.get().getValue(parentState, parentHValue, rule,
+					state);
+		}
+		return -1;
+	}
+
 	// public void fillBoardWithRandomValues() {
 	// Board board = initialState.getBoard();
 	// int n = board.getN();
@@ -51,6 +51,43 @@ public class CalcudokuState extends GPSState<CalcudokuRule, CalcudokuState> {
 		return Optional.of(newState);
 	}
 
+	@Override
+	public boolean supportsInPlace() {
+		return true;
+	}
+
+	@Override
+	public CalcudokuState mutableCopy() {
+		return new CalcudokuState(this);
+	}
+
+	@Override
+	public boolean applyInPlace(CalcudokuRule rule) {
+		board.swapCellValues(rule.getFrom(), rule.getTo());
+		return true;
+	}
+
+	// NOTE: a swap is its own inverse
+	@Override
+	public void undo(CalcudokuRule rule) {
+		board.swapCellValues(rule.getFrom(), rule.getTo());
+	}
+
+	@Override
+	public boolean hasCompactKey() {
+		return board.hasCompactKey();
+	}
+
+	@Override
+	public long getCompactKey() {
+		return board.getCompactKey();
+	}
+
+	@Override
+	public long getCompactKey(long noKey) {
+		return board.getCompactKey(noKey);
+	}
+
 	@Override
 	public boolean isValid() {
 		// IMPORTANT: assuming a complete board (heuristic reparation)
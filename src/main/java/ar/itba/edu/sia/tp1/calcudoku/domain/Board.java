@@ -26,9 +26,15 @@ import java.util.stream.Collectors;
  *
  */
 public class Board {
+	// IMPORTANT: 6!^6 < 2^63, the row ranks of bigger boards don't fit a long
+	private static final int MAX_N_FOR_COMPACT_KEY = 6;
+
 	private final BitSet data;
 	private final int n;
 	private final List<Group> groups;
+	// IMPORTANT: bumped by every change to data, so that values derived from
+	// the board (see BoardViolations) can tell when they are stale
+	private int modificationCount = 0;
 
 	public Board(int n, List<Group> groups) {
 		this.n = n;
@@ -42,6 +48,7 @@ public class Board {
 		this.n = baseBoard.n;
 		this.groups = baseBoard.groups;
 		this.data = baseBoard.data.get(0, baseBoard.data.size());
+		this.modificationCount = baseBoard.modificationCount;
 	}
 
 	public Board deepCopy() {
@@ -124,6 +131,144 @@ public class Board {
 		return true;
 	}
 
+	/**
+	 * The board has a compact key if n is small enough and each row is a
+	 * permutation of 1..n (swaps within a row keep it that way)
+	 * 
+	 * @return
+	 */
+	public boolean hasCompactKey() {
+		if (n > MAX_N_FOR_COMPACT_KEY) {
+			return false;
+		}
+		for (int i = 0; i < n; i++) {
+			if (rowPermutationRank(i) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Mixed radix number (base n!) whose digits are the ranks of the rows
+	 * 
+	 * Precondicion: hasCompactKey()
+	 * 
+	 * @return
+	 */
+	public long getCompactKey() {
+		if (n > MAX_N_FOR_COMPACT_KEY) {
+			throw new IllegalStateException("Board is too big for a key");
+		}
+		long key = getCompactKey(-1);
+		if (key < 0) {
+			throw new IllegalStateException("A row is not a permutation");
+		}
+		return key;
+	}
+
+	/**
+	 * Same as getCompactKey(), ranking each row once
+	 * 
+	 * @param noKey
+	 * @return noKey if the board has no compact key
+	 */
+	public long getCompactKey(long noKey) {
+		if (n > MAX_N_FOR_COMPACT_KEY) {
+			return noKey;
+		}
+		long rowPermutations = 1;
+		for (int i = 2; i <= n; i++) {
+			rowPermutations *= i;
+		}
+
+		long key = 0;
+		for (int i = 0; i < n; i++) {
+			int rank = rowPermutationRank(i);
+			if (rank < 0) {
+				return noKey;
+			}
+			key = key * rowPermutations + rank;
+		}
+		return key;
+	}
+
+	/**
+	 * Board with the same groups whose rows are the ones encoded in the key
+	 * 
+	 * Precondicion: key was returned by getCompactKey() of a board with the
+	 * same n
+	 * 
+	 * @param key
+	 * @return
+	 */
+	public Board withCompactKey(long key) {
+		long rowPermutations = 1;
+		for (int i = 2; i <= n; i++) {
+			rowPermutations *= i;
+		}
+
+		Board board = new Board(this);
+		long remainingKey = key;
+		for (int i = n - 1; i >= 0; i--) {
+			board.putRowPermutation(i, (int) (remainingKey % rowPermutations));
+			remainingKey /= rowPermutations;
+		}
+		return board;
+	}
+
+	/**
+	 * Inverse of rowPermutationRank(row)
+	 */
+	private void putRowPermutation(int row, int rank) {
+		int[] lowerUnusedValues = new int[n];
+		int remainingRank = rank;
+		for (int j = n - 1; j >= 0; j--) {
+			lowerUnusedValues[j] = remainingRank % (n - j);
+			remainingRank /= (n - j);
+		}
+
+		List<Integer> unusedValues = new ArrayList<>();
+		for (int value = 1; value <= n; value++) {
+			unusedValues.add(value);
+		}
+		for (int j = 0; j < n; j++) {
+			put(row, j, unusedValues.remove(lowerUnusedValues[j]));
+		}
+	}
+
+	/**
+	 * Lehmer code of the values in the row, -1 if they are not a permutation
+	 * of 1..n
+	 */
+	private int rowPermutationRank(int row) {
+		int unusedValues = (1 << n) - 1;
+		int rank = 0;
+		for (int j = 0; j < n; j++) {
+			int valueIndex = getCellValueIndex(row, j);
+			if (valueIndex < 0 || (unusedValues & (1 << valueIndex)) == 0) {
+				return -1;
+			}
+			int lowerUnusedValues = Integer.bitCount(unusedValues
+					& ((1 << valueIndex) - 1));
+			rank = rank * (n - j) + lowerUnusedValues;
+			unusedValues &= ~(1 << valueIndex);
+		}
+		return rank;
+	}
+
+	/**
+	 * Same as getCellValue(i, j) - 1 (-1 if empty) without copying the cell
+	 */
+	private int getCellValueIndex(int i, int j) {
+		int beginning = getBeginningOfCell(i, j);
+		int index = data.nextSetBit(beginning);
+		if (index < 0 || index >= beginning + n) {
+			return -1;
+		}
+		return index - beginning;
+	}
+
 	public List<Integer> getAllValues() {
 		List<Integer> values = new ArrayList<>();
 		for (int i = 0; i < n; i++) {
@@ -137,32 +282,51 @@ public class Board {
 	// cantidad de grupos inválidos
 	public int invalidGroupsCount() {
 		int count = 0;
-		for (Group aGroup : getCompleteGroups()) {
-			if (!aGroup.isCorrect(getValuesForGroup(aGroup))) {
+		for (Group aGroup : groups) {
+			if (!isGroupValid(aGroup)) {
 				count++;
 			}
 		}
 		return count;
 	}
 
+	/**
+	 * Incomplete groups are not taken as invalid
+	 */
+	public boolean isGroupValid(Group aGroup) {
+		return !isACompleteGroup(aGroup)
+				|| aGroup.isCorrect(getValuesForGroup(aGroup));
+	}
+
 	// cantida de columnas inválidas
 	public int invalidColumnsCount() {
-		BitSet op = new BitSet(n);
 		int count = 0;
 		for (int j = 0; j < n; j++) {
-			for (int i = 0; i < n; i++) {
-				op.or(getCell(i, j));
-			}
-
-			// cardinality counts the number of 1s in the BitSet
-			if (op.cardinality() < n) {
+			if (!isColumnValid(j)) {
 				count++;
 			}
-			op.clear();
 		}
 		return count;
 	}
 
+	/**
+	 * Every value from 1 to n must be in the column
+	 */
+	public boolean isColumnValid(int col) {
+		int usedValues = 0;
+		for (int i = 0; i < n; i++) {
+			int valueIndex = getCellValueIndex(i, col);
+			if (valueIndex >= 0) {
+				usedValues |= 1 << valueIndex;
+			}
+		}
+		return Integer.bitCount(usedValues) == n;
+	}
+
+	public int getModificationCount() {
+		return modificationCount;
+	}
+
 	private List<Integer> getValuesForGroup(Group aGroup) {
 		return aGroup.getPositions().stream()
 				.map(aPosition -> getCellValue(aPosition))
@@ -186,6 +350,7 @@ public class Board {
 		for (int i = 0; i < n; i++) {
 			data.set(beginning + i, bitValue.get(i));
 		}
+		modificationCount++;
 	}
 
 	/**
@@ -210,9 +375,16 @@ public class Board {
 	}
 
 	public void swapCellValues(Position from, Position to) {
-		int aux = getCellValue(to);
-		put(to, getCellValue(from));
-		put(from, aux);
+		int fromBeginning = getBeginningOfCell(from.getRow(), from.getCol());
+		int toBeginning = getBeginningOfCell(to.getRow(), to.getCol());
+
+		// IMPORTANT: bit by bit, so that no cell has to be copied out
+		for (int i = 0; i < n; i++) {
+			boolean fromBit = data.get(fromBeginning + i);
+			data.set(fromBeginning + i, data.get(toBeginning + i));
+			data.set(toBeginning + i, fromBit);
+		}
+		modificationCount++;
 	}
 
 	public List<Group> getCompleteGroups() {
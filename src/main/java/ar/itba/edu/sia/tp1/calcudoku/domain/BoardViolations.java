@@ -0,0 +1,137 @@
+package ar.itba.edu.sia.tp1.calcudoku.domain;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Which groups and columns of a board are invalid, along with the value of
+ * each group, so that the ones of a board one swap away can be worked out by
+ * only checking the groups and columns of the two swapped cells.
+ */
+public class BoardViolations {
+	// IMPORTANT: indexes are the ones of board.getGroups() (-1 for cells out
+	// of every group), shared by all the violations built from the same ones
+	private final int[] groupOfCell;
+	private final int[] groupValues;
+	private final BitSet invalidGroups;
+	private final BitSet invalidColumns;
+	private final int identityGroupsCount;
+	private int invalidIdentityGroupsCount;
+
+	public static BoardViolations of(Board board) {
+		int n = board.getN();
+		List<Group> groups = board.getGroups();
+
+		int[] groupOfCell = new int[n * n];
+		Arrays.fill(groupOfCell, -1);
+		for (int i = 0; i < groups.size(); i++) {
+			for (Position position : groups.get(i).getPositions()) {
+				groupOfCell[position.getRow() * n + position.getCol()] = i;
+			}
+		}
+		int identityGroupsCount = 0;
+		for (Group group : groups) {
+			if (group.getOperator() == Operator.IDENTITY) {
+				identityGroupsCount++;
+			}
+		}
+
+		BoardViolations violations = new BoardViolations(groupOfCell,
+				new int[groups.size()], new BitSet(groups.size()),
+				new BitSet(n), identityGroupsCount);
+		for (int i = 0; i < groups.size(); i++) {
+			violations.checkGroup(board, i);
+		}
+		for (int j = 0; j < n; j++) {
+			violations.checkColumn(board, j);
+		}
+		return violations;
+	}
+
+	private BoardViolations(int[] groupOfCell, int[] groupValues,
+			BitSet invalidGroups, BitSet invalidColumns,
+			int identityGroupsCount) {
+		this.groupOfCell = groupOfCell;
+		this.groupValues = groupValues;
+		this.invalidGroups = invalidGroups;
+		this.invalidColumns = invalidColumns;
+		this.identityGroupsCount = identityGroupsCount;
+	}
+
+	/**
+	 * @param board
+	 *            the board right after swapping the values of the two cells
+	 *            on the board these violations belong to.
+	 */
+	public BoardViolations afterSwap(Board board, Position from, Position to) {
+		BoardViolations violations = new BoardViolations(groupOfCell,
+				groupValues.clone(), (BitSet) invalidGroups.clone(),
+				(BitSet) invalidColumns.clone(), identityGroupsCount);
+		violations.invalidIdentityGroupsCount = invalidIdentityGroupsCount;
+
+		int n = board.getN();
+		int fromGroup = groupOfCell[from.getRow() * n + from.getCol()];
+		int toGroup = groupOfCell[to.getRow() * n + to.getCol()];
+		// NOTE: every operator gives the same value for any order of the
+		// cells, a swap within a group leaves it as it was
+		if (fromGroup != toGroup) {
+			violations.checkGroup(board, fromGroup);
+			violations.checkGroup(board, toGroup);
+		}
+		violations.checkColumn(board, from.getCol());
+		violations.checkColumn(board, to.getCol());
+		return violations;
+	}
+
+	private void checkGroup(Board board, int index) {
+		if (index < 0) {
+			return;
+		}
+		Group group = board.getGroups().get(index);
+		boolean wasInvalid = invalidGroups.get(index);
+		boolean invalid = !board.isGroupValid(group);
+		invalidGroups.set(index, invalid);
+		if (invalid) {
+			groupValues[index] = group.getValue(board);
+		}
+		if (group.getOperator() == Operator.IDENTITY && wasInvalid != invalid) {
+			invalidIdentityGroupsCount += invalid ? 1 : -1;
+		}
+	}
+
+	private void checkColumn(Board board, int col) {
+		invalidColumns.set(col, !board.isColumnValid(col));
+	}
+
+	public int getInvalidGroupsCount() {
+		return invalidGroups.cardinality();
+	}
+
+	public int getInvalidColumnsCount() {
+		return invalidColumns.cardinality();
+	}
+
+	public int getIdentityGroupsCount() {
+		return identityGroupsCount;
+	}
+
+	public int getInvalidIdentityGroupsCount() {
+		return invalidIdentityGroupsCount;
+	}
+
+	/**
+	 * @return index (in board.getGroups()) of the first invalid group at or
+	 *         after the given one, -1 if there is none.
+	 */
+	public int nextInvalidGroup(int fromIndex) {
+		return invalidGroups.nextSetBit(fromIndex);
+	}
+
+	/**
+	 * Precondicion: the group is invalid
+	 */
+	public int getGroupValue(int index) {
+		return groupValues[index];
+	}
+}
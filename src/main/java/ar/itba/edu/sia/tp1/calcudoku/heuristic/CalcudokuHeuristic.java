@@ -1,13 +1,67 @@
 package ar.itba.edu.sia.tp1.calcudoku.heuristic;
 
 import static ar.itba.edu.sia.tp1.util.ObjectUtils.toStringBuilder;
+import ar.itba.edu.sia.tp1.calcudoku.CalcudokuRule;
 import ar.itba.edu.sia.tp1.calcudoku.CalcudokuState;
+import ar.itba.edu.sia.tp1.calcudoku.domain.Board;
+import ar.itba.edu.sia.tp1.calcudoku.domain.BoardViolations;
 import ar.itba.edu.sia.tp1.gps.GPSHeuristic;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
 
+/**
+ * Heuristics that only depend on which groups and columns are invalid, so
+ * that the value of a child state can be worked out by checking the groups
+ * and columns of the two swapped cells again.
+ */
 public abstract class CalcudokuHeuristic implements
 		GPSHeuristic<CalcudokuState> {
+	// IMPORTANT: the children of a state are evaluated one after the other,
+	// so the violations of the last parent are all that is worth keeping
+	// (per thread, as engines may share the heuristic). States do not keep
+	// their own, that would add to every state held in memory.
+	private final ThreadLocal<ParentViolations> lastParent = new ThreadLocal<>();
+
+	@Override
+	public int getValue(CalcudokuState state) {
+		return getValue(state.getBoard(), BoardViolations.of(state.getBoard()));
+	}
+
+	@Override
+	public int getValue(CalcudokuState parentState, int parentValue,
+			GPSRule rule, CalcudokuState state) {
+		CalcudokuRule swap = (CalcudokuRule) rule;
+		return getValue(state.getBoard(), getViolations(parentState)
+				.afterSwap(state.getBoard(), swap.getFrom(), swap.getTo()));
+	}
+
+	protected abstract int getValue(Board board, BoardViolations violations);
+
+	private BoardViolations getViolations(CalcudokuState parentState) {
+		Board board = parentState.getBoard();
+		ParentViolations parent = lastParent.get();
+		// NOTE: the board may have been changed in place since
+		if (parent == null || parent.state != parentState
+				|| parent.modificationCount != board.getModificationCount()) {
+			parent = new ParentViolations(parentState, board);
+			lastParent.set(parent);
+		}
+		return parent.violations;
+	}
+
 	@Override
 	public String toString() {
 		return toStringBuilder(this).toString();
 	}
+
+	private static class ParentViolations {
+		private final CalcudokuState state;
+		private final int modificationCount;
+		private final BoardViolations violations;
+
+		private ParentViolations(CalcudokuState state, Board board) {
+			this.state = state;
+			this.modificationCount = board.getModificationCount();
+			this.violations = BoardViolations.of(board);
+		}
+	}
 }
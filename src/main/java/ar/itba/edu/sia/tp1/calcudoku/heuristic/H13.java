@@ -1,11 +1,7 @@
 package ar.itba.edu.sia.tp1.calcudoku.heuristic;
 
-import java.util.List;
-
-import ar.itba.edu.sia.tp1.calcudoku.CalcudokuState;
 import ar.itba.edu.sia.tp1.calcudoku.domain.Board;
-import ar.itba.edu.sia.tp1.calcudoku.domain.Group;
-import ar.itba.edu.sia.tp1.calcudoku.domain.Operator;
+import ar.itba.edu.sia.tp1.calcudoku.domain.BoardViolations;
 
 /**
  * Created by scamisay on 09/04/16.
@@ -16,38 +12,17 @@ public class H13 extends CalcudokuHeuristic {
 	private static final H1 h1 = new H1();
 
 	@Override
-	public int getValue(CalcudokuState state) {
-		Board board = state.getBoard();
-		List<Group> groups = state.getGroups(); // IMPORTANT: they are sorted by
-												// size
-		int n = board.getN();
-
-		int idGroups = 0;
-		int idGroupsOk = 0;
-		int i;
-		for (i = 0; i < groups.size(); i++) {
-			Group group = groups.get(i);
-			if (group.getOperator() == Operator.IDENTITY) {
-				idGroups++;
-
-				if (group.isCorrect(board)) {
-					idGroupsOk++;
-				}
-			}
-		}
+	protected int getValue(Board board, BoardViolations violations) {
+		int idGroups = violations.getIdentityGroupsCount();
+		int idGroupsOk = idGroups - violations.getInvalidIdentityGroupsCount();
 		if (idGroupsOk != idGroups) {
-			return h1.getValue(state) - idGroupsOk;
+			return h1.getValue(board, violations) - idGroupsOk;
 		}
 
-		double hValue = 0;
-		for (; i < groups.size(); i++) {
-			Group group = groups.get(i);
-			if (!group.isCorrect(board)) {
-				int groupSize = group.getPositions().size();
-				hValue += (1 - ((double) groupSize) / 10) * groupSize;
-			}
-		}
-		hValue += board.invalidColumnsCount() * 0.1;
+		// NOTE: the terms of the other groups never made it to the value
+		// (their loop started where the one over every group ended), only
+		// the columns count
+		double hValue = violations.getInvalidColumnsCount() * 0.1;
 		return (int) Math.ceil(hValue);
 	}
 }
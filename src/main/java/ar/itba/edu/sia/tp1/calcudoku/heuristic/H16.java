@@ -6,25 +6,17 @@ import static java.lang.Math.max;
 import java.util.ArrayList;
 import java.util.List;
 
-import ar.itba.edu.sia.tp1.calcudoku.CalcudokuState;
 import ar.itba.edu.sia.tp1.calcudoku.domain.Board;
+import ar.itba.edu.sia.tp1.calcudoku.domain.BoardViolations;
 import ar.itba.edu.sia.tp1.calcudoku.domain.Group;
 import ar.itba.edu.sia.tp1.calcudoku.domain.Operator;
 
 public class H16 extends CalcudokuHeuristic {
 	@Override
-	public int getValue(CalcudokuState state) {
-		Board board = state.getBoard();
-		int invalidGroupsCount = board.invalidGroupsCount();
-		int invalidColumnsCount = board.invalidColumnsCount();
-
-		int invalidIdGroups = 0;
-		for (Group group : board.getGroups()) {
-			if (group.getOperator() == Operator.IDENTITY
-					&& !group.isCorrect(board)) {
-				invalidIdGroups++;
-			}
-		}
+	protected int getValue(Board board, BoardViolations violations) {
+		int invalidGroupsCount = violations.getInvalidGroupsCount();
+		int invalidColumnsCount = violations.getInvalidColumnsCount();
+		int invalidIdGroups = violations.getInvalidIdentityGroupsCount();
 		// int invalidNonIdGroups = invalidGroupsCount - invalidIdGroups;
 
 		int steps = (int) ceil(
@@ -39,8 +31,10 @@ public class H16 extends CalcudokuHeuristic {
 		hValue += aux;
 		steps -= aux;
 
-		List<Group> invalidGroups = getInvalidNonIdGroups(board);
-		aux = Math.min(steps, invalidGroupsCount);
+		List<Group> invalidGroups = getInvalidNonIdGroups(board, violations);
+		// NOTE: the identity groups were already counted, they are not in
+		// the list
+		aux = Math.min(steps, invalidGroups.size());
 		for (int i = 0; i < aux; i++) {
 			Group group = invalidGroups.get(i);
 			hValue += 1.d / group.getPositions().size();
@@ -52,6 +46,21 @@ public class H16 extends CalcudokuHeuristic {
 		return (int) Math.ceil(hValue);
 	}
 
+	private List<Group> getInvalidNonIdGroups(Board board,
+			BoardViolations violations) {
+		List<Group> groups = board.getGroups();
+		List<Group> invalidGroups = new ArrayList<>(
+				violations.getInvalidGroupsCount());
+
+		for (int i = violations.nextInvalidGroup(0); i >= 0; i = violations
+				.nextInvalidGroup(i + 1)) {
+			if (groups.get(i).getOperator() != Operator.IDENTITY) {
+				invalidGroups.add(groups.get(i));
+			}
+		}
+		return invalidGroups;
+	}
+
 	public List<Group> getInvalidNonIdGroups(Board board) {
 		List<Group> groups = board.getGroups();
 		List<Group> invalidGroups = new ArrayList<>(groups.size());
@@ -1,6 +1,7 @@
 package ar.itba.edu.sia.tp1.calcudoku.heuristic;
 
-import ar.itba.edu.sia.tp1.calcudoku.CalcudokuState;
+import ar.itba.edu.sia.tp1.calcudoku.domain.Board;
+import ar.itba.edu.sia.tp1.calcudoku.domain.BoardViolations;
 
 /**
  * Created by scamisay on 09/04/16.
@@ -9,8 +10,8 @@ public class H3 extends CalcudokuHeuristic {
 	private static final H1 h1 = new H1();
 
 	@Override
-	public int getValue(CalcudokuState state) {
-		int m = h1.getValue(state);
+	protected int getValue(Board board, BoardViolations violations) {
+		int m = h1.getValue(board, violations);
 		return Math.max(m * (m - 1), m);
 	}
 }
@@ -1,7 +1,8 @@
 package ar.itba.edu.sia.tp1.calcudoku.heuristic;
 
 import static java.lang.Math.min;
-import ar.itba.edu.sia.tp1.calcudoku.CalcudokuState;
+import ar.itba.edu.sia.tp1.calcudoku.domain.Board;
+import ar.itba.edu.sia.tp1.calcudoku.domain.BoardViolations;
 
 /**
  * Created by scamisay on 09/04/16.
@@ -10,9 +11,9 @@ public class H4 extends CalcudokuHeuristic {
 	private static final H1 h1 = new H1();
 
 	@Override
-	public int getValue(CalcudokuState state) {
-		int m = h1.getValue(state);
-		int n = state.getN();
+	protected int getValue(Board board, BoardViolations violations) {
+		int m = h1.getValue(board, violations);
+		int n = board.getN();
 		return min(n, m);
 	}
 }
@@ -2,8 +2,8 @@ package ar.itba.edu.sia.tp1.calcudoku.heuristic;
 
 import java.util.List;
 
-import ar.itba.edu.sia.tp1.calcudoku.CalcudokuState;
 import ar.itba.edu.sia.tp1.calcudoku.domain.Board;
+import ar.itba.edu.sia.tp1.calcudoku.domain.BoardViolations;
 import ar.itba.edu.sia.tp1.calcudoku.domain.Group;
 
 /**
@@ -11,28 +11,27 @@ import ar.itba.edu.sia.tp1.calcudoku.domain.Group;
  */
 public class H6 extends CalcudokuHeuristic { // *really* good
 	@Override
-	public int getValue(CalcudokuState state) {
-		Board board = state.getBoard();
+	protected int getValue(Board board, BoardViolations violations) {
 		int n = board.getN();
 		List<Group> groups = board.getGroups();
 
 		int minSwaps = 0;
-		for (Group group : groups) {
-			if (!group.isCorrect(board)) {
-				switch (group.getOperator()) {
-					case IDENTITY :
-					case PLUS :
-					case MINUS :
-						int value = group.getValue(board);
-						minSwaps += (Math.abs(group.getResult() - value) / n);
-						break;
-					case MULTIPLY :
-					case DIVIDE :
-						minSwaps++;
-				}
+		for (int i = violations.nextInvalidGroup(0); i >= 0; i = violations
+				.nextInvalidGroup(i + 1)) {
+			Group group = groups.get(i);
+			switch (group.getOperator()) {
+				case IDENTITY :
+				case PLUS :
+				case MINUS :
+					int value = violations.getGroupValue(i);
+					minSwaps += (Math.abs(group.getResult() - value) / n);
+					break;
+				case MULTIPLY :
+				case DIVIDE :
+					minSwaps++;
 			}
 		}
-		return (int) Math
-				.ceil(Math.max(minSwaps, board.invalidColumnsCount()) / 2);
+		return (int) Math.ceil(Math.max(minSwaps,
+				violations.getInvalidColumnsCount()) / 2);
 	}
 }
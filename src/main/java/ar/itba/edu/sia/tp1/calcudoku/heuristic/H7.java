@@ -1,6 +1,7 @@
 package ar.itba.edu.sia.tp1.calcudoku.heuristic;
 
-import ar.itba.edu.sia.tp1.calcudoku.CalcudokuState;
+import ar.itba.edu.sia.tp1.calcudoku.domain.Board;
+import ar.itba.edu.sia.tp1.calcudoku.domain.BoardViolations;
 
 /**
  * Created by scamisay on 09/04/16.
@@ -14,9 +15,9 @@ public class H7 extends CalcudokuHeuristic {
 	private static final H5 h5 = new H5();
 
 	@Override
-	public int getValue(CalcudokuState state) {
-		int h3Value = h3.getValue(state);
-		int h5Value = h5.getValue(state);
+	protected int getValue(Board board, BoardViolations violations) {
+		int h3Value = h3.getValue(board, violations);
+		int h5Value = h5.getValue(board, violations);
 		return (h3Value * (TOTAL_TIME - H3_TIME) + h5Value
 				* (TOTAL_TIME - H5_TIME))
 				/ TOTAL_TIME;
@@ -15,6 +15,21 @@ public enum Direction {
 		return delta;
 	}
 
+	public Direction opposite() {
+		switch (this) {
+		case LEFT:
+			return RIGHT;
+		case DOWN:
+			return UP;
+		case RIGHT:
+			return LEFT;
+		case UP:
+			return DOWN;
+		default:
+			throw new IllegalStateException();
+		}
+	}
+
 	@Override
 	public String toString() {
 		switch (this) {
@@ -1,23 +1,46 @@
 package ar.itba.edu.sia.tp1.eight_puzzle;
 
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 
+import ar.itba.edu.sia.tp1.gps.GPSBidirectionalProblem;
+import ar.itba.edu.sia.tp1.gps.GPSCompactKeyProblem;
 import ar.itba.edu.sia.tp1.gps.GPSHeuristic;
-import ar.itba.edu.sia.tp1.gps.GPSProblem;
 import ar.itba.edu.sia.tp1.gps.ProblemParser;
 
-public class Puzzle implements GPSProblem<PuzzleRule, PuzzleState> {
+public class Puzzle
+		implements
+			GPSBidirectionalProblem<PuzzleRule, PuzzleState>,
+			GPSCompactKeyProblem<PuzzleRule, PuzzleState> {
 	private static final PuzzleState FINAL_STATE = new PuzzleState(new int[][] {
 			{ 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, -1 } });
 
 	private final PuzzleState initialState;
 	private final GPSHeuristic<PuzzleState> heuristic;
+	// IMPORTANT: x * LENGTH + y of each tile in the initial state, indexed
+	// by tile
+	private final int[] initialSlots;
 
 	public Puzzle(ProblemParser<PuzzleState> problemReader,
 			GPSHeuristic<PuzzleState> heuristic) {
 		this.initialState = problemReader.parse();
 		this.heuristic = heuristic;
+		this.initialSlots = slotsOf(initialState);
+	}
+
+	private static int[] slotsOf(PuzzleState state) {
+		int[][] map = state.getMap();
+		int[] slots = new int[PuzzleState.LENGTH * PuzzleState.LENGTH];
+		for (int x = 0; x < PuzzleState.LENGTH; x++) {
+			for (int y = 0; y < PuzzleState.LENGTH; y++) {
+				if (map[x][y] != PuzzleState.BLANK) {
+					slots[map[x][y]] = x * PuzzleState.LENGTH + y;
+				}
+			}
+		}
+		return slots;
 	}
 
 	@Override
@@ -25,11 +48,21 @@ public class Puzzle implements GPSProblem<PuzzleRule, PuzzleState> {
 		return initialState;
 	}
 
+	@Override
+	public PuzzleState getState(long compactKey) {
+		return PuzzleState.fromCompactKey(compactKey);
+	}
+
 	@Override
 	public boolean isGoal(PuzzleState state) {
 		return state.equals(FINAL_STATE);
 	}
 
+	@Override
+	public List<PuzzleState> getGoalStates() {
+		return Collections.singletonList(FINAL_STATE);
+	}
+
 	@Override
 	public List<PuzzleRule> getRules() {
 		List<PuzzleRule> rules = new LinkedList<PuzzleRule>();
@@ -39,9 +72,40 @@ public class Puzzle implements GPSProblem<PuzzleRule, PuzzleState> {
 		return rules;
 	}
 
+	@Override
+	public PuzzleRule getInverseRule(PuzzleRule rule) {
+		return new PuzzleRule(rule.getDirection().opposite());
+	}
+
+	@Override
+	public Optional<GPSHeuristic<PuzzleState>> getHeuristic() {
+		return Optional.ofNullable(heuristic);
+	}
+
 	// Valor Heurística para A*
 	@Override
 	public int getHValue(PuzzleState state) {
 		return heuristic.getValue(state);
 	}
+
+	/**
+	 * Manhattan distance of every tile to where it is in the initial state,
+	 * which no move can lower by more than one.
+	 */
+	@Override
+	public int getBackwardHValue(PuzzleState state) {
+		int[][] map = state.getMap();
+		int distance = 0;
+		for (int x = 0; x < PuzzleState.LENGTH; x++) {
+			for (int y = 0; y < PuzzleState.LENGTH; y++) {
+				int tile = map[x][y];
+				if (tile != PuzzleState.BLANK) {
+					int slot = initialSlots[tile];
+					distance += Math.abs(slot / PuzzleState.LENGTH - x)
+							+ Math.abs(slot % PuzzleState.LENGTH - y);
+				}
+			}
+		}
+		return distance;
+	}
 }
@@ -1,7 +1,6 @@
 package ar.itba.edu.sia.tp1.eight_puzzle;
 
 import java.awt.Point;
-import java.util.Arrays;
 import java.util.Optional;
 
 import ar.itba.edu.sia.tp1.gps.GPSState;
@@ -11,77 +10,167 @@ public class PuzzleState extends GPSState<PuzzleRule, PuzzleState> {
 	public static final int LENGTH = 3;
 	public static final int BLANK = -1;
 
-	private final int[][] map;
+	private static final int SLOTS = LENGTH * LENGTH;
+	private static final int SLOT_BITS = 4;
+	private static final long SLOT_MASK = 0xF;
+	// IMPORTANT: 0 is a valid (if unused) tile value, so the blank is
+	// packed as the highest one instead
+	private static final long BLANK_SLOT = 0xF;
+	private static final int NO_BLANK = -1;
+
+	// IMPORTANT: slot x * LENGTH + y is bits 4 * slot .. 4 * slot + 3, and
+	// the position of the blank is kept so that no move has to look for it
+	private long tiles;
+	private int blank;
 
 	public PuzzleState() {
-		this.map = new int[LENGTH][LENGTH];
+		this(new int[LENGTH][LENGTH]);
 	}
 
-	@SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Not our code")
+	/**
+	 * @param map
+	 *            the tiles, from 0 to 8, or BLANK.
+	 */
 	public PuzzleState(int[][] map) {
-		this.map = map;
+		long tiles = 0;
+		for (int x = 0; x < LENGTH; x++) {
+			for (int y = 0; y < LENGTH; y++) {
+				// IMPORTANT: any other value would not fit (or would be
+				// taken for the blank)
+				if (map[x][y] != BLANK && (map[x][y] < 0 || map[x][y] >= SLOTS)) {
+					throw new IllegalArgumentException("Invalid tile "
+							+ map[x][y] + " at " + x + ", " + y);
+				}
+				long slot = map[x][y] == BLANK ? BLANK_SLOT : map[x][y];
+				tiles |= slot << (SLOT_BITS * (x * LENGTH + y));
+			}
+		}
+		this.tiles = tiles;
+		this.blank = findBlank(tiles);
+	}
+
+	private PuzzleState(long tiles, int blank) {
+		this.tiles = tiles;
+		this.blank = blank;
 	}
 
 	@Override
 	public Optional<PuzzleState> apply(PuzzleRule rule) {
-		Point delta = rule.getDirection().getDelta();
-		Point blank = getBlankCoords();
-		rule.destination = (Point) blank.clone();
-		rule.destination.translate(delta.x, delta.y);
-		if (!isValid(rule)) {
+		int destination = getDestination(rule.getDirection());
+		if (destination == NO_BLANK) {
 			return Optional.empty();
 		}
+		return Optional.of(new PuzzleState(swapBlank(destination),
+				destination));
+	}
+
+	@Override
+	public boolean supportsInPlace() {
+		return true;
+	}
+
+	@Override
+	public PuzzleState mutableCopy() {
+		return new PuzzleState(tiles, blank);
+	}
+
+	@Override
+	public boolean applyInPlace(PuzzleRule rule) {
+		return moveBlank(rule.getDirection());
+	}
+
+	@Override
+	public void undo(PuzzleRule rule) {
+		moveBlank(rule.getDirection().opposite());
+	}
+
+	private boolean moveBlank(Direction direction) {
+		int destination = getDestination(direction);
+		if (destination == NO_BLANK) {
+			return false;
+		}
+		tiles = swapBlank(destination);
+		blank = destination;
+		return true;
+	}
+
+	/**
+	 * @return the slot the blank would move to, or NO_BLANK if it would
+	 *         leave the board.
+	 */
+	private int getDestination(Direction direction) {
+		if (blank == NO_BLANK) {
+			throw new IllegalStateException();
+		}
+		int destX = blank / LENGTH + direction.getDelta().x;
+		int destY = blank % LENGTH + direction.getDelta().y;
+		if (destX < 0 || destX >= LENGTH || destY < 0 || destY >= LENGTH) {
+			return NO_BLANK;
+		}
+		return destX * LENGTH + destY;
+	}
 
-		int[][] newMap = deepCopy(map);
-		newMap[blank.x][blank.y] = newMap[rule.destination.x][rule.destination.y];
-		newMap[rule.destination.x][rule.destination.y] = PuzzleState.BLANK;
-		return Optional.of(new PuzzleState(newMap));
+	/**
+	 * @return the tiles after moving the blank to the given slot.
+	 */
+	private long swapBlank(int destination) {
+		int blankShift = SLOT_BITS * blank;
+		int destinationShift = SLOT_BITS * destination;
+		long tile = (tiles >>> destinationShift) & SLOT_MASK;
+		return tiles & ~(SLOT_MASK << blankShift)
+				& ~(SLOT_MASK << destinationShift) | tile << blankShift
+				| BLANK_SLOT << destinationShift;
 	}
 
-	private int[][] deepCopy(int[][] param) {
-		int baseLength = param.length;
-		int[][] ret = new int[baseLength][];
-		for (int i = 0; i < baseLength; i++) {
-			ret[i] = new int[param[i].length];
-			for (int j = 0; j < baseLength; j++) {
-				ret[i][j] = param[i][j];
+	private static int findBlank(long tiles) {
+		for (int slot = 0; slot < SLOTS; slot++) {
+			if (((tiles >>> (SLOT_BITS * slot)) & SLOT_MASK) == BLANK_SLOT) {
+				return slot;
 			}
 		}
-		return ret;
+		return NO_BLANK;
 	}
 
+	/**
+	 * @return true if the rule moves the blank within the board.
+	 */
 	public boolean isValid(PuzzleRule rule) {
-		Point destination = rule.destination;
-		return !(destination.getX() < 0
-				|| destination.getX() >= PuzzleState.LENGTH
-				|| destination.getY() < 0 || destination.getY() >= PuzzleState.LENGTH);
+		return getDestination(rule.getDirection()) != NO_BLANK;
 	}
 
 	public Point getBlankCoords() {
-		int x, y;
-		for (x = 0; x < LENGTH; x++) {
-			for (y = 0; y < LENGTH; y++) {
-				if (map[x][y] == BLANK) {
-					return new Point(x, y);
-				}
-			}
+		if (blank == NO_BLANK) {
+			throw new IllegalStateException();
 		}
-		throw new IllegalStateException();
+		return new Point(blank / LENGTH, blank % LENGTH);
+	}
+
+	/**
+	 * Inverse of {@link #getCompactKey()}.
+	 */
+	public static PuzzleState fromCompactKey(long key) {
+		return new PuzzleState(key, findBlank(key));
+	}
+
+	@Override
+	public boolean hasCompactKey() {
+		return true;
+	}
+
+	// NOTE: the packed tiles themselves
+	@Override
+	public long getCompactKey() {
+		return tiles;
+	}
+
+	@Override
+	public long getCompactKey(long noKey) {
+		return tiles;
 	}
 
 	@Override
 	public int hashCode() {
-		int hash = 0;
-		int i = 0;
-		for (int[] row : map) {
-			for (int slot : row) {
-				if (slot != -1) {
-					hash += Math.pow(10, i) * slot;
-				}
-				i++;
-			}
-		}
-		return hash;
+		return Long.hashCode(tiles);
 	}
 
 	@Override
@@ -93,21 +182,32 @@ public class PuzzleState extends GPSState<PuzzleRule, PuzzleState> {
 		if (getClass() != obj.getClass())
 			return false;
 		PuzzleState other = (PuzzleState) obj;
-		if (!Arrays.deepEquals(map, other.map))
-			return false;
-		return true;
+		return tiles == other.tiles;
 	}
 
-	@SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Not our code")
+	/**
+	 * @return a copy of the tiles, changing it does not change the state.
+	 */
 	public int[][] getMap() {
+		int[][] map = new int[LENGTH][LENGTH];
+		for (int x = 0; x < LENGTH; x++) {
+			for (int y = 0; y < LENGTH; y++) {
+				map[x][y] = getTile(x * LENGTH + y);
+			}
+		}
 		return map;
 	}
 
+	private int getTile(int slot) {
+		long tile = (tiles >>> (SLOT_BITS * slot)) & SLOT_MASK;
+		return tile == BLANK_SLOT ? BLANK : (int) tile;
+	}
+
 	@Override
 	@SuppressFBWarnings(value = "SBSC_USE_STRINGBUFFER_CONCATENATION", justification = "Not our code")
 	public String toString() {
 		String resp = "\n";
-		for (int[] row : map) {
+		for (int[] row : getMap()) {
 			for (int value : row) {
 				resp += String.valueOf(value) + ' ';
 			}
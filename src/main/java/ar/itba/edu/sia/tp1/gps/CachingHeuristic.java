@@ -0,0 +1,214 @@
+package ar.itba.edu.sia.tp1.gps;
+
+/**
+ * Remembers the values of another Heuristic by {@link GPSState#getCompactKey()}
+ * so that a state generated many times (from different parents, before the
+ * engine prunes it) is only evaluated once. States without a compact key are
+ * always evaluated. As the engine does with the initial state, the first
+ * state tells if the problem has compact keys at all; if it does not, no key
+ * is worked out for the states that follow.
+ *
+ * The cache has a fixed capacity. It is split in sets of a few entries each
+ * (the set of a key given by its hash) and, when a set is full, the entry to
+ * drop is picked with the clock algorithm: every hit marks an entry, and a
+ * hand sweeps the set unmarking entries until it finds one that was not
+ * marked, which is replaced.
+ *
+ * It can be shared by engines running on different threads, the delegate is
+ * evaluated outside of the lock.
+ */
+public class CachingHeuristic<S extends GPSState<? extends GPSRule, S>>
+		implements
+			GPSHeuristic<S> {
+	private static final int WAYS = 8;
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	private static final byte EMPTY = 0;
+	private static final byte UNREFERENCED = 1;
+	private static final byte REFERENCED = 2;
+	// IMPORTANT: out of the range of int, so no value is taken for it
+	private static final long MISS = Long.MIN_VALUE;
+	// NOTE: a state whose key is this one is just not cached
+	private static final long NO_KEY = Long.MIN_VALUE;
+
+	private final GPSHeuristic<S> heuristic;
+	// IMPORTANT: entries WAYS * set .. WAYS * set + WAYS - 1 make up a set
+	private final long[] keys;
+	private final int[] values;
+	private final byte[] marks;
+	private final byte[] hands;
+	private final int setShift;
+	// IMPORTANT: null until the first state is evaluated
+	private volatile Boolean keyed = null;
+	private int size = 0;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	/**
+	 * @param heuristic
+	 *            the Heuristic whose values are cached.
+	 * @param capacity
+	 *            maximum number of values kept, rounded down to a power of
+	 *            two (and to at least {@value #WAYS}).
+	 */
+	public CachingHeuristic(GPSHeuristic<S> heuristic, int capacity) {
+		if (capacity < WAYS) {
+			throw new IllegalArgumentException("Cache needs room for at least "
+					+ WAYS + " values");
+		}
+		int sets = Integer.highestOneBit(capacity) / WAYS;
+		this.heuristic = heuristic;
+		this.keys = new long[sets * WAYS];
+		this.values = new int[sets * WAYS];
+		this.marks = new byte[sets * WAYS];
+		this.hands = new byte[sets];
+		this.setShift = 64 - Integer.numberOfTrailingZeros(sets);
+	}
+
+	@Override
+	public int getValue(S state) {
+		long key = keyOf(state);
+		if (key == NO_KEY) {
+			return heuristic.getValue(state);
+		}
+		long cached = lookup(key);
+		if (cached != MISS) {
+			return (int) cached;
+		}
+		int value = heuristic.getValue(state);
+		store(key, value);
+		return value;
+	}
+
+	@Override
+	public int getValue(S parentState, int parentValue, GPSRule rule, S state) {
+		long key = keyOf(state);
+		if (key == NO_KEY) {
+			return heuristic.getValue(parentState, parentValue, rule, state);
+		}
+		long cached = lookup(key);
+		if (cached != MISS) {
+			return (int) cached;
+		}
+		int value = heuristic.getValue(parentState, parentValue, rule, state);
+		store(key, value);
+		return value;
+	}
+
+	private long keyOf(S state) {
+		Boolean keyed = this.keyed;
+		if (keyed == null) {
+			keyed = state.hasCompactKey();
+			this.keyed = keyed;
+		}
+		return keyed ? state.getCompactKey(NO_KEY) : NO_KEY;
+	}
+
+	public GPSHeuristic<S> getHeuristic() {
+		return heuristic;
+	}
+
+	public int capacity() {
+		return keys.length;
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Number of values that were found in the cache.
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Number of values that had to be computed by the delegate (for states
+	 * with a compact key).
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Number of values that were dropped to make room for others.
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return hits over lookups, 0 if there were none.
+	 */
+	public synchronized double getHitRatio() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * @return the value cached for the key, or MISS if there is none. It is
+	 *         read here because, once the lock is released, its entry may be
+	 *         taken by another key.
+	 */
+	private synchronized long lookup(long key) {
+		int first = firstEntryOf(key);
+		for (int entry = first; entry < first + WAYS; entry++) {
+			if (marks[entry] != EMPTY && keys[entry] == key) {
+				marks[entry] = REFERENCED;
+				hits++;
+				return values[entry];
+			}
+		}
+		misses++;
+		return MISS;
+	}
+
+	private synchronized void store(long key, int value) {
+		int first = firstEntryOf(key);
+		int free = -1;
+		for (int entry = first; entry < first + WAYS; entry++) {
+			if (marks[entry] == EMPTY) {
+				free = free < 0 ? entry : free;
+			} else if (keys[entry] == key) {
+				// NOTE: another thread computed it in the meantime
+				values[entry] = value;
+				return;
+			}
+		}
+		if (free < 0) {
+			free = evict(first);
+		}
+		keys[free] = key;
+		values[free] = value;
+		marks[free] = UNREFERENCED;
+		size++;
+	}
+
+	/**
+	 * Sweeps the (full) set starting at its hand, giving a second chance to
+	 * the referenced entries, and empties the first unreferenced one.
+	 */
+	private int evict(int first) {
+		int set = first / WAYS;
+		int hand = hands[set];
+		while (marks[first + hand] == REFERENCED) {
+			marks[first + hand] = UNREFERENCED;
+			hand = (hand + 1) % WAYS;
+		}
+		int entry = first + hand;
+		hands[set] = (byte) ((hand + 1) % WAYS);
+		marks[entry] = EMPTY;
+		size--;
+		evictions++;
+		return entry;
+	}
+
+	private int firstEntryOf(long key) {
+		// IMPORTANT: the high bits of the product are the best mixed ones
+		int set = setShift == 64 ? 0
+				: (int) ((key * HASH_MULTIPLIER) >>> setShift);
+		return set * WAYS;
+	}
+}
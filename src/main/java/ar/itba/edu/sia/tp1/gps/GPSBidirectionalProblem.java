@@ -0,0 +1,41 @@
+package ar.itba.edu.sia.tp1.gps;
+
+import java.util.List;
+
+/**
+ * A problem whose goal states are known up front and whose rules can be
+ * undone, so that it can also be searched backwards from its goals.
+ */
+public interface GPSBidirectionalProblem<R extends GPSRule, S extends GPSState<R, S>>
+		extends
+			GPSProblem<R, S> {
+	/**
+	 * Provides every state for which {@link #isGoal(GPSState)} holds.
+	 *
+	 * @return The goal states of the problem.
+	 */
+	List<S> getGoalStates();
+
+	/**
+	 * Provides the rule that undoes the given one: if applying rule to a
+	 * state gives another state, applying the inverse rule to the latter
+	 * gives back the former.
+	 *
+	 * @param rule
+	 *            The rule to invert.
+	 * @return The inverse rule.
+	 */
+	R getInverseRule(R rule);
+
+	/**
+	 * Computes the value of the Heuristic from the given state back to the
+	 * initial state.
+	 *
+	 * @param state
+	 *            The state where the Heuristic should be computed.
+	 * @return The value of the Heuristic.
+	 */
+	default int getBackwardHValue(S state) {
+		return 0;
+	}
+}
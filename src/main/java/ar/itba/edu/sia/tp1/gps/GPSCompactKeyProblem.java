@@ -0,0 +1,17 @@
+package ar.itba.edu.sia.tp1.gps;
+
+/**
+ * A problem whose states can be rebuilt from their compact keys, so that
+ * they can be stored as keys alone (for instance on disk).
+ */
+public interface GPSCompactKeyProblem<R extends GPSRule, S extends GPSState<R, S>>
+		extends
+			GPSProblem<R, S> {
+	/**
+	 * @param compactKey
+	 *            The key of a state of this problem.
+	 * @return The state whose {@link GPSState#getCompactKey()} is the given
+	 *         key.
+	 */
+	S getState(long compactKey);
+}
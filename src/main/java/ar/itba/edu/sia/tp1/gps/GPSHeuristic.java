@@ -6,4 +6,24 @@ package ar.itba.edu.sia.tp1.gps;
 @FunctionalInterface
 public interface GPSHeuristic<S extends GPSState<? extends GPSRule, S>> {
 	int getValue(S state);
+
+	/**
+	 * Computes the value for a state reached by applying a rule to another
+	 * one whose value is known. Heuristics that can take advantage of it
+	 * (for instance, by only checking what the rule changed) should override
+	 * it.
+	 *
+	 * @param parentState
+	 *            The state the rule was applied to.
+	 * @param parentValue
+	 *            The value of the Heuristic for the parent state.
+	 * @param rule
+	 *            The rule that was applied.
+	 * @param state
+	 *            The state where the Heuristic should be computed.
+	 * @return The value of the Heuristic.
+	 */
+	default int getValue(S parentState, int parentValue, GPSRule rule, S state) {
+		return getValue(state);
+	}
 }
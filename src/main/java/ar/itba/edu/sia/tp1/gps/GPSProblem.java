@@ -1,6 +1,7 @@
 package ar.itba.edu.sia.tp1.gps;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * GPSProblem interface.
@@ -40,4 +41,33 @@ public interface GPSProblem<R extends GPSRule, S extends GPSState<R, S>> {
 	default int getHValue(S state) {
 		return 1;
 	}
+
+	/**
+	 * Computes the value of the Heuristic for a state reached by applying a
+	 * rule to another one, see
+	 * {@link GPSHeuristic#getValue(GPSState, int, GPSRule, GPSState)}.
+	 *
+	 * @param parentState
+	 *            The state the rule was applied to.
+	 * @param parentHValue
+	 *            The value of the Heuristic for the parent state.
+	 * @param rule
+	 *            The rule that was applied.
+	 * @param state
+	 *            The state where the Heuristic should be computed.
+	 * @return The value of the Heuristic.
+	 */
+	default int getHValue(S parentState, int parentHValue, R rule, S state) {
+		return getHValue(state);
+	}
+
+	/**
+	 * Provides the Heuristic behind {@link #getHValue(GPSState)}, if any. Only
+	 * used to describe the problem.
+	 *
+	 * @return The Heuristic, or empty if there is none.
+	 */
+	default Optional<GPSHeuristic<S>> getHeuristic() {
+		return Optional.empty();
+	}
 }
@@ -12,6 +12,85 @@ public abstract class GPSState<R extends GPSRule, S extends GPSState<R, S>> {
 
 	public abstract Optional<S> apply(R rule);
 
+	/**
+	 * Resolves if this state can be changed in place by
+	 * {@link #applyInPlace(GPSRule)} and {@link #undo(GPSRule)}, which lets
+	 * depth-first searches walk a single state instead of building a new one
+	 * for every rule.
+	 *
+	 * @return true if {@link #mutableCopy()}, {@link #applyInPlace(GPSRule)}
+	 *         and {@link #undo(GPSRule)} are supported, false otherwise.
+	 */
+	public boolean supportsInPlace() {
+		return false;
+	}
+
+	/**
+	 * Provides a copy of this state that can be changed in place without
+	 * affecting this one.
+	 *
+	 * @return The copy.
+	 */
+	public S mutableCopy() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Changes this very state as {@link #apply(GPSRule)} would.
+	 *
+	 * @param rule
+	 *            The rule to apply.
+	 * @return true if the rule was applied, false if it does not apply (and
+	 *         the state was left as it was).
+	 */
+	public boolean applyInPlace(R rule) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Reverts the last successful {@link #applyInPlace(GPSRule)}, which must
+	 * have been given the same rule.
+	 *
+	 * @param rule
+	 *            The rule to revert.
+	 */
+	public void undo(R rule) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Resolves if this state can be identified by {@link #getCompactKey()}.
+	 * When the initial state of a problem has a compact key, the engine
+	 * tracks visited states by key instead of keeping the states themselves.
+	 *
+	 * @return true if {@link #getCompactKey()} is supported, false otherwise.
+	 */
+	public boolean hasCompactKey() {
+		return false;
+	}
+
+	/**
+	 * Provides a key that is different for every pair of different states
+	 * reachable from the same initial state.
+	 *
+	 * @return The compact key of the state.
+	 */
+	public long getCompactKey() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Same as {@link #getCompactKey()}, for states that may not have one,
+	 * without working the key out twice.
+	 *
+	 * @param noKey
+	 *            The value to return if the state has no compact key.
+	 * @return The compact key of the state, or noKey.
+	 */
+	public long getCompactKey(long noKey) {
+		return hasCompactKey() ? getCompactKey() : noKey;
+	}
+
 	/**
 	 * Compares self to another state to determine whether they are the same or
 	 * not.
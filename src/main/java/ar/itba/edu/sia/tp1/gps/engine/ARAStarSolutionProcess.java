@@ -0,0 +1,183 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import ar.itba.edu.sia.tp1.gps.GPSProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Anytime Repairing A* (ARA*). Runs a weighted A* (f = g + w * h) that
+ * quickly finds a solution at most w times as expensive as the optimal one,
+ * then lowers w and repairs that search instead of starting over: nodes
+ * whose cost improved after being expanded are kept aside (inconsistent) and
+ * put back in the open list, along with the ones still there, for the next
+ * round. Once w reaches 1 the solution is optimal.
+ *
+ * Every improved solution is handed to the listener as soon as it is found.
+ */
+class ARAStarSolutionProcess<R extends GPSRule, S extends GPSState<R, S>>
+		implements
+			SolutionProcess<R, S> {
+	private final GPSProblem<R, S> problem;
+	private final int maxDepth;
+	private final double initialWeight;
+	private final double weightDecrement;
+	private final ImprovedSolutionListener<R, S> listener;
+	private final SearchBudget<R, S> budget;
+
+	// IMPORTANT: best node found so far for each reached state, open nodes
+	// that are not in here anymore are stale
+	private final Map<S, GPSNode<R, S>> bestNodes = new HashMap<>();
+	private final Set<S> closed = new HashSet<>();
+	private final List<GPSNode<R, S>> inconsistent = new ArrayList<>();
+	private PriorityQueue<GPSNode<R, S>> openNodes;
+	private double weight;
+
+	private GPSNode<R, S> bestGoal;
+	private boolean truncated = false;
+	private long explosionCount = 0;
+	private long analyzedNodes = 0;
+	private long generatedNodes = 0;
+
+	/**
+	 * If the budget runs out after a solution was found, that solution is
+	 * returned (as truncated) and its bound is the last one reported.
+	 */
+	ARAStarSolutionProcess(GPSProblem<R, S> problem, int maxDepth,
+			double initialWeight, double weightDecrement,
+			ImprovedSolutionListener<R, S> listener, SearchBudget<R, S> budget) {
+		this.problem = problem;
+		this.maxDepth = maxDepth;
+		this.initialWeight = initialWeight;
+		this.weightDecrement = weightDecrement;
+		this.listener = listener;
+		this.budget = budget;
+	}
+
+	@Override
+	public GPSSolution<R, S> solve() {
+		S initialState = problem.getInitialState();
+		GPSNode<R, S> root = new GPSNode<>(null, initialState, 0,
+				problem.getHValue(initialState));
+		bestNodes.put(initialState, root);
+
+		weight = initialWeight;
+		openNodes = new PriorityQueue<>(byWeightedFValue(weight));
+		openNodes.add(root);
+		improvePath();
+
+		while (weight > 1 && !truncated) {
+			weight = Math.max(1, weight - weightDecrement);
+
+			PriorityQueue<GPSNode<R, S>> newOpenNodes = new PriorityQueue<>(
+					byWeightedFValue(weight));
+			for (GPSNode<R, S> node : openNodes) {
+				if (isCurrent(node)) {
+					newOpenNodes.add(node);
+				}
+			}
+			newOpenNodes.addAll(inconsistent);
+			inconsistent.clear();
+			closed.clear();
+			openNodes = newOpenNodes;
+
+			improvePath();
+		}
+		if (truncated) {
+			return budget.truncated(bestGoal, explosionCount, analyzedNodes);
+		}
+		return GPSSolution.of(bestGoal, explosionCount, analyzedNodes);
+	}
+
+	/**
+	 * Weighted A* round, until no open node can lead to a solution cheaper
+	 * than the current one within the current weight, or until the budget
+	 * runs out.
+	 */
+	private void improvePath() {
+		while (!openNodes.isEmpty()) {
+			// NOTE: every reached state is in bestNodes, open or closed
+			if (budget.isExhausted(explosionCount, generatedNodes,
+					bestNodes.size())) {
+				truncated = true;
+				return;
+			}
+			GPSNode<R, S> node = openNodes.peek();
+			if (bestGoal != null
+					&& bestGoal.getGValue() <= weightedFValue(node, weight)) {
+				break;
+			}
+			openNodes.poll();
+			if (!isCurrent(node) || !closed.add(node.getState())) {
+				continue;
+			}
+
+			analyzedNodes++;
+			budget.observe(node);
+			if (problem.isGoal(node.getState())) {
+				if (bestGoal == null
+						|| node.getGValue() < bestGoal.getGValue()) {
+					bestGoal = node;
+					listener.onImprovedSolution(GPSSolution.of(bestGoal,
+							explosionCount, analyzedNodes), weight);
+				}
+				continue;
+			}
+			explode(node);
+		}
+	}
+
+	private void explode(GPSNode<R, S> node) {
+		explosionCount++;
+		for (R rule : problem.getRules()) {
+			Optional<S> newStateOpt = node.getState().apply(rule);
+
+			if (newStateOpt.isPresent()) {
+				S newState = newStateOpt.get();
+				int newGValue = node.getGValue() + rule.getCost();
+				GPSNode<R, S> best = bestNodes.get(newState);
+
+				if (newGValue <= maxDepth
+						&& (best == null || newGValue < best.getGValue())) {
+					GPSNode<R, S> newNode = new GPSNode<>(node, rule, newState,
+							newGValue, problem.getHValue(node.getState(),
+									node.getHValue(), rule, newState));
+					if (bestGoal != null
+							&& newNode.getFValue() >= bestGoal.getGValue()) {
+						// IMPORTANT: can't improve the current solution
+						continue;
+					}
+					bestNodes.put(newState, newNode);
+					generatedNodes++;
+					if (closed.contains(newState)) {
+						inconsistent.add(newNode);
+					} else {
+						openNodes.add(newNode);
+					}
+				}
+			}
+		}
+	}
+
+	private boolean isCurrent(GPSNode<R, S> node) {
+		return bestNodes.get(node.getState()) == node;
+	}
+
+	private static double weightedFValue(GPSNode<?, ?> node, double weight) {
+		return node.getGValue() + weight * node.getHValue();
+	}
+
+	private static Comparator<GPSNode<?, ?>> byWeightedFValue(double weight) {
+		return (n1, n2) -> Double.compare(weightedFValue(n1, weight),
+				weightedFValue(n2, weight));
+	}
+}
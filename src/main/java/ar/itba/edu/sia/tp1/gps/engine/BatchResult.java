@@ -0,0 +1,58 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.time.Duration;
+
+import ar.itba.edu.sia.tp1.gps.GPSProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Outcome of one of the problems solved by a {@link BatchSolver}, or of the
+ * engine that won a {@link PortfolioSolver} race.
+ */
+public class BatchResult<R extends GPSRule, S extends GPSState<R, S>> {
+	private final int index;
+	private final GPSProblem<R, S> problem;
+	private final GPSSolution<R, S> solution;
+	private final Duration queueTime;
+	private final Duration solveTime;
+
+	BatchResult(int index, GPSProblem<R, S> problem,
+			GPSSolution<R, S> solution, Duration queueTime, Duration solveTime) {
+		this.index = index;
+		this.problem = problem;
+		this.solution = solution;
+		this.queueTime = queueTime;
+		this.solveTime = solveTime;
+	}
+
+	/**
+	 * @return the position of the problem in the batch (or of the engine in
+	 *         the portfolio), starting at 0.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	public GPSProblem<R, S> getProblem() {
+		return problem;
+	}
+
+	public GPSSolution<R, S> getSolution() {
+		return solution;
+	}
+
+	/**
+	 * @return how long the problem waited for a worker after being submitted.
+	 */
+	public Duration getQueueTime() {
+		return queueTime;
+	}
+
+	/**
+	 * @return how long it took to build the engine and solve the problem.
+	 */
+	public Duration getSolveTime() {
+		return solveTime;
+	}
+}
@@ -0,0 +1,164 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import ar.itba.edu.sia.tp1.gps.GPSProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Solves many problems concurrently on a shared executor, each one with its
+ * own engine. At most a given number of problems are submitted and not yet
+ * consumed at any time: problems are only pulled from the input as results
+ * are taken, so a slow consumer (or a huge input) does not pile up work.
+ *
+ * Results come back in completion order, not in the input's. Closing the
+ * stream of results cancels the problems still pending, so it should be
+ * closed if it is not fully consumed.
+ */
+public class BatchSolver<R extends GPSRule, S extends GPSState<R, S>> {
+	private final Function<? super GPSProblem<R, S>, ? extends GPSEngine<R, S>> engineBuilder;
+	private final Executor executor;
+	private final int maxPendingProblems;
+
+	/**
+	 * @param engineBuilder
+	 *            builds and configures the engine for each problem. It runs
+	 *            on the executor.
+	 * @param executor
+	 *            where problems are solved, it is not shut down by the
+	 *            solver.
+	 * @param maxPendingProblems
+	 *            how many problems can be submitted before their results
+	 *            are taken.
+	 */
+	public BatchSolver(
+			Function<? super GPSProblem<R, S>, ? extends GPSEngine<R, S>> engineBuilder,
+			Executor executor, int maxPendingProblems) {
+		if (maxPendingProblems < 1) {
+			throw new IllegalArgumentException(
+					"At least one problem has to be pending");
+		}
+		this.engineBuilder = engineBuilder;
+		this.executor = executor;
+		this.maxPendingProblems = maxPendingProblems;
+	}
+
+	/**
+	 * Lazily solves the given problems. Nothing is submitted until the
+	 * returned stream is consumed, and it has to be consumed sequentially.
+	 * If a problem fails to solve the exception is thrown (wrapped in an
+	 * {@link IllegalStateException}) when its result would be returned, and
+	 * the rest of the batch is cancelled.
+	 */
+	public Stream<BatchResult<R, S>> solve(
+			Stream<? extends GPSProblem<R, S>> problems) {
+		Results results = new Results(problems.iterator());
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+				results, Spliterator.NONNULL), false).onClose(results::close);
+	}
+
+	private class Results implements Iterator<BatchResult<R, S>> {
+		private final Iterator<? extends GPSProblem<R, S>> problems;
+		private final CompletionService<BatchResult<R, S>> completed = new ExecutorCompletionService<>(
+				executor);
+		private final Set<Future<BatchResult<R, S>>> pending = new HashSet<>();
+		// IMPORTANT: of the problems being solved, written by the executor
+		private final Set<CancellationToken> running = ConcurrentHashMap
+				.newKeySet();
+		private volatile boolean closed = false;
+		private int submitted = 0;
+
+		private Results(Iterator<? extends GPSProblem<R, S>> problems) {
+			this.problems = problems;
+		}
+
+		@Override
+		public boolean hasNext() {
+			submitPending();
+			return !pending.isEmpty();
+		}
+
+		@Override
+		public BatchResult<R, S> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			try {
+				Future<BatchResult<R, S>> result = completed.take();
+				pending.remove(result);
+				return result.get();
+			} catch (InterruptedException e) {
+				close();
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while solving", e);
+			} catch (ExecutionException e) {
+				close();
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+
+		/**
+		 * Drops the problems not started yet and cancels the ones being
+		 * solved, nothing else is submitted afterwards.
+		 */
+		private void close() {
+			closed = true;
+			for (Future<BatchResult<R, S>> result : pending) {
+				result.cancel(false);
+			}
+			pending.clear();
+			for (CancellationToken token : running) {
+				token.cancel();
+			}
+		}
+
+		private void submitPending() {
+			while (!closed && pending.size() < maxPendingProblems
+					&& problems.hasNext()) {
+				GPSProblem<R, S> problem = problems.next();
+				int index = submitted++;
+				long submittedAt = System.nanoTime();
+				pending.add(completed.submit(() -> solve(index, problem,
+						submittedAt)));
+			}
+		}
+
+		private BatchResult<R, S> solve(int index, GPSProblem<R, S> problem,
+				long submittedAt) {
+			long startedAt = System.nanoTime();
+			GPSEngine<R, S> engine = engineBuilder.apply(problem);
+			CancellationToken token = engine.newCancellationToken();
+			running.add(token);
+			GPSSolution<R, S> solution;
+			try {
+				// IMPORTANT: closed while the engine was being built
+				if (closed) {
+					token.cancel();
+				}
+				solution = engine.solve(token);
+			} finally {
+				running.remove(token);
+			}
+			long finishedAt = System.nanoTime();
+			return new BatchResult<>(index, problem, solution,
+					Duration.ofNanos(startedAt - submittedAt),
+					Duration.ofNanos(finishedAt - startedAt));
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import ar.itba.edu.sia.tp1.gps.GPSProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Beam search: a breadth first search that only keeps the best (lowest f)
+ * nodes of each depth layer, up to the beam width. Within a layer where
+ * every rule costs the same, that is the same as keeping the lowest h ones.
+ *
+ * Memory is bounded by the width times the depth, but the search is not
+ * complete: the way to a goal may be left out of the beam. Candidates of a
+ * layer can be generated and scored in parallel, the chosen beam is the
+ * same regardless of the number of workers.
+ */
+class BeamSolutionProcess<R extends GPSRule, S extends GPSState<R, S>>
+		implements
+			SolutionProcess<R, S> {
+	private static final Comparator<GPSNode<?, ?>> byFValue = (n1, n2) -> Integer
+			.compare(n1.getFValue(), n2.getFValue());
+
+	private final GPSProblem<R, S> problem;
+	private final int maxDepth;
+	private final int beamWidth;
+	private final int workers;
+	private final SearchBudget<R, S> budget;
+
+	// IMPORTANT: only read while a layer is being expanded
+	private final Set<S> visited = new HashSet<>();
+	private long explosionCount = 0;
+	private long analyzedNodes = 0;
+	private long generatedNodes = 0;
+
+	/**
+	 * The budget is only checked between layers.
+	 */
+	BeamSolutionProcess(GPSProblem<R, S> problem, int maxDepth, int beamWidth,
+			int workers, SearchBudget<R, S> budget) {
+		this.problem = problem;
+		this.maxDepth = maxDepth;
+		this.beamWidth = beamWidth;
+		this.workers = workers;
+		this.budget = budget;
+	}
+
+	@Override
+	public GPSSolution<R, S> solve() {
+		S initialState = problem.getInitialState();
+		visited.add(initialState);
+		List<GPSNode<R, S>> layer = Collections.singletonList(new GPSNode<>(
+				null, initialState, 0, problem.getHValue(initialState)));
+
+		ForkJoinPool pool = workers > 1 ? new ForkJoinPool(workers) : null;
+		try {
+			for (int depth = 0; !layer.isEmpty(); depth++) {
+				analyzedNodes += layer.size();
+				for (GPSNode<R, S> node : layer) {
+					if (problem.isGoal(node.getState())) {
+						return GPSSolution.of(node, explosionCount,
+								analyzedNodes);
+					}
+				}
+				if (depth >= maxDepth) {
+					break;
+				}
+				for (GPSNode<R, S> node : layer) {
+					budget.observe(node);
+				}
+				// NOTE: the states of the layer are already visited
+				if (budget.isExhausted(explosionCount, generatedNodes,
+						visited.size())) {
+					return budget.truncated(explosionCount, analyzedNodes);
+				}
+
+				explosionCount += layer.size();
+				layer = nextBeam(pool, layer);
+				for (GPSNode<R, S> node : layer) {
+					visited.add(node.getState());
+				}
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+		return GPSSolution.failure(explosionCount, analyzedNodes);
+	}
+
+	private List<GPSNode<R, S>> nextBeam(ForkJoinPool pool,
+			List<GPSNode<R, S>> layer) {
+		List<GPSNode<R, S>> candidates = inPool(pool, () -> {
+			Stream<GPSNode<R, S>> nodes = pool == null
+					? layer.stream()
+					: layer.parallelStream();
+			return nodes.flatMap(this::explode).collect(Collectors.toList());
+		});
+		generatedNodes += candidates.size();
+
+		// IMPORTANT: the same state can be reached from many parents
+		Map<S, GPSNode<R, S>> bestCandidates = new LinkedHashMap<>();
+		for (GPSNode<R, S> candidate : candidates) {
+			GPSNode<R, S> best = bestCandidates.get(candidate.getState());
+			if (best == null || candidate.getGValue() < best.getGValue()) {
+				bestCandidates.put(candidate.getState(), candidate);
+			}
+		}
+		return bestCandidates.values().stream().sorted(byFValue)
+				.limit(beamWidth).collect(Collectors.toList());
+	}
+
+	private Stream<GPSNode<R, S>> explode(GPSNode<R, S> node) {
+		Stream.Builder<GPSNode<R, S>> newNodes = Stream.builder();
+		for (R rule : problem.getRules()) {
+			Optional<S> newStateOpt = node.getState().apply(rule);
+
+			if (newStateOpt.isPresent()) {
+				S newState = newStateOpt.get();
+				int newGValue = node.getGValue() + rule.getCost();
+
+				if (newGValue <= maxDepth && !visited.contains(newState)) {
+					newNodes.add(new GPSNode<>(node, rule, newState,
+							newGValue, problem.getHValue(node.getState(),
+									node.getHValue(), rule, newState)));
+				}
+			}
+		}
+		return newNodes.build();
+	}
+
+	private static <T> T inPool(ForkJoinPool pool, Supplier<T> task) {
+		if (pool == null) {
+			return task.get();
+		}
+		try {
+			return pool.submit(task::get).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while solving", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+}
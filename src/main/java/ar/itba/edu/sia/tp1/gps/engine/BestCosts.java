@@ -0,0 +1,43 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Lowest cost at which each state has been expanded, used to check if a node
+ * was visited (even in uninformed algorithms like DFS).
+ */
+interface BestCosts<S extends GPSState<?, S>> {
+	/**
+	 * Picks the most compact table the given state supports.
+	 */
+	static <S extends GPSState<?, S>> BestCosts<S> forState(S initialState) {
+		if (initialState.hasCompactKey()) {
+			return new CompactKeyBestCosts<>();
+		}
+		return new StateBestCosts<>();
+	}
+
+	boolean isBetterThanCurrentBest(S state, int cost);
+
+	void updateBestCost(S state, int cost);
+
+	/**
+	 * Same as {@link #updateBestCost(GPSState, int)} for the state with the
+	 * given compact key, without having to build it.
+	 */
+	void updateBestCost(long compactKey, int cost);
+
+	boolean contains(S state);
+
+	/**
+	 * Visits every entry, by the compact key of its state.
+	 */
+	void forEachCompactKey(CompactKeyCostConsumer consumer);
+
+	int size();
+
+	@FunctionalInterface
+	interface CompactKeyCostConsumer {
+		void accept(long compactKey, int cost);
+	}
+}
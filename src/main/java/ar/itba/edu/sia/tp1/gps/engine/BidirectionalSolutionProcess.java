@@ -0,0 +1,225 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.function.ToIntFunction;
+
+import ar.itba.edu.sia.tp1.gps.GPSBidirectionalProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Searches forwards from the initial state and backwards from the goal
+ * states at the same time, always expanding the side with fewer open nodes,
+ * until both searches meet in the middle.
+ *
+ * With BFS both sides are ordered by g and the search stops once the sum of
+ * their lowest g values reaches the cheapest meeting found. With A_STAR
+ * (front-to-end) each side is ordered by its own f = g + h and the search
+ * stops once either lowest f reaches the cheapest meeting found.
+ *
+ * A backward node stores the rule that leads <b>from</b> its state to its
+ * parent's, so the backward half of the path can be replayed forwards.
+ */
+class BidirectionalSolutionProcess<R extends GPSRule, S extends GPSState<R, S>>
+		implements
+			SolutionProcess<R, S> {
+	private final GPSBidirectionalProblem<R, S> problem;
+	private final SearchStrategy searchStrategy;
+	private final int maxDepth;
+	private final SearchBudget<R, S> budget;
+
+	private final Side forward;
+	private final Side backward;
+
+	private GPSNode<R, S> forwardMeeting;
+	private GPSNode<R, S> backwardMeeting;
+	private int bestMeetingCost = Integer.MAX_VALUE;
+
+	private long explosionCount = 0;
+	private long analyzedNodes = 0;
+	private long generatedNodes = 0;
+
+	BidirectionalSolutionProcess(GPSBidirectionalProblem<R, S> problem,
+			SearchStrategy searchStrategy, int maxDepth,
+			SearchBudget<R, S> budget) {
+		this.problem = problem;
+		this.searchStrategy = searchStrategy;
+		this.maxDepth = maxDepth;
+		this.budget = budget;
+		this.forward = new Side(false);
+		this.backward = new Side(true);
+	}
+
+	@Override
+	public GPSSolution<R, S> solve() {
+		S initialState = problem.getInitialState();
+		GPSNode<R, S> root = new GPSNode<>(null, initialState, 0,
+				problem.getHValue(initialState));
+		analyzedNodes++;
+		budget.observe(root);
+		if (problem.isGoal(initialState)) {
+			return GPSSolution.of(root, explosionCount, analyzedNodes);
+		}
+
+		forward.add(root);
+		for (S goalState : problem.getGoalStates()) {
+			backward.add(new GPSNode<>(null, goalState, 0, problem
+					.getBackwardHValue(goalState)));
+		}
+
+		while (!isOver()) {
+			if (budget.isExhausted(explosionCount, generatedNodes,
+					forward.storedNodes() + backward.storedNodes())) {
+				return budget.truncated(forwardMeeting == null ? null : join(
+						forwardMeeting, backwardMeeting), explosionCount,
+						analyzedNodes);
+			}
+			Side side = forward.openNodes.size() <= backward.openNodes.size()
+					? forward
+					: backward;
+			side.explodeNext();
+		}
+
+		if (forwardMeeting == null) {
+			return GPSSolution.failure(explosionCount, analyzedNodes);
+		}
+		return GPSSolution.of(join(forwardMeeting, backwardMeeting),
+				explosionCount, analyzedNodes);
+	}
+
+	private boolean isOver() {
+		// IMPORTANT: a side with no open nodes has reached every state it
+		// can with its lowest cost, so the cheapest meeting (if any) was
+		// already found when the other side added it
+		if (forward.openNodes.isEmpty() || backward.openNodes.isEmpty()) {
+			return true;
+		}
+		if (forwardMeeting == null) {
+			return false;
+		}
+		switch (searchStrategy) {
+		case BFS:
+			return forward.lowestPriority() + backward.lowestPriority() >= bestMeetingCost;
+		default:
+			return Math.max(forward.lowestPriority(),
+					backward.lowestPriority()) >= bestMeetingCost;
+		}
+	}
+
+	/**
+	 * Continues the forward path with the states of the backward path, from
+	 * the meeting state up to the goal.
+	 */
+	private GPSNode<R, S> join(GPSNode<R, S> forwardNode,
+			GPSNode<R, S> backwardNode) {
+		GPSNode<R, S> node = forwardNode;
+		GPSNode<R, S> currBackwardNode = backwardNode;
+		while (currBackwardNode.getParent() != null) {
+			R rule = currBackwardNode.getRule();
+			S state = currBackwardNode.getParent().getState();
+			node = new GPSNode<>(node, rule, state, node.getGValue()
+					+ rule.getCost(), problem.getHValue(state));
+			currBackwardNode = currBackwardNode.getParent();
+		}
+		return node;
+	}
+
+	private class Side {
+		private final boolean isBackward;
+		private final Queue<GPSNode<R, S>> openNodes;
+		// IMPORTANT: best node found so far for each reached state, open
+		// nodes that are not in here anymore are stale
+		private final Map<S, GPSNode<R, S>> bestNodes = new HashMap<>();
+
+		private Side(boolean isBackward) {
+			this.isBackward = isBackward;
+			this.openNodes = new BucketQueue<>(priority());
+		}
+
+		private ToIntFunction<GPSNode<R, S>> priority() {
+			switch (searchStrategy) {
+			case BFS:
+				return GPSNode::getGValue;
+			case A_STAR:
+				return GPSNode::getFValue;
+			default:
+				throw new IllegalStateException(searchStrategy
+						+ " cannot run bidirectionally");
+			}
+		}
+
+		/**
+		 * Lowest priority among the open nodes, of which there must be some.
+		 */
+		private int lowestPriority() {
+			return priority().applyAsInt(openNodes.peek());
+		}
+
+		// NOTE: every reached state is in bestNodes, open or not
+		private int storedNodes() {
+			return bestNodes.size();
+		}
+
+		private Side other() {
+			return isBackward ? forward : backward;
+		}
+
+		private void add(GPSNode<R, S> node) {
+			generatedNodes++;
+			bestNodes.put(node.getState(), node);
+			openNodes.add(node);
+
+			GPSNode<R, S> otherNode = other().bestNodes.get(node.getState());
+			if (otherNode != null) {
+				int cost = node.getGValue() + otherNode.getGValue();
+				if (cost < bestMeetingCost) {
+					bestMeetingCost = cost;
+					forwardMeeting = isBackward ? otherNode : node;
+					backwardMeeting = isBackward ? node : otherNode;
+				}
+			}
+		}
+
+		private void explodeNext() {
+			GPSNode<R, S> node = openNodes.poll();
+			analyzedNodes++;
+			if (bestNodes.get(node.getState()) != node) {
+				return;
+			}
+			explosionCount++;
+			if (!isBackward) {
+				// NOTE: backward h values are not comparable
+				budget.observe(node);
+			}
+
+			for (R rule : problem.getRules()) {
+				R appliedRule = isBackward ? problem.getInverseRule(rule) : rule;
+				Optional<S> newStateOpt = node.getState().apply(appliedRule);
+
+				if (newStateOpt.isPresent()) {
+					S newState = newStateOpt.get();
+					int newGValue = node.getGValue() + rule.getCost();
+					GPSNode<R, S> best = bestNodes.get(newState);
+
+					if (newGValue <= maxDepth
+							&& (best == null || newGValue < best.getGValue())) {
+						int newHValue = isBackward ? problem
+								.getBackwardHValue(newState) : problem
+								.getHValue(newState);
+						if (searchStrategy == SearchStrategy.A_STAR
+								&& newGValue + newHValue >= bestMeetingCost) {
+							// IMPORTANT: with an admissible h no path through
+							// it beats the meeting already found
+							continue;
+						}
+						add(new GPSNode<>(node, rule, newState, newGValue,
+								newHValue));
+					}
+				}
+			}
+		}
+	}
+}
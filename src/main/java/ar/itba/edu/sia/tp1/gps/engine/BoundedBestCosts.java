@@ -0,0 +1,150 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.util.Arrays;
+
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Fixed-capacity transposition table keyed by
+ * {@link GPSState#getCompactKey()}. Each hash bucket has two slots: one that
+ * keeps the entry closest to the root (lowest cost) and one that keeps the
+ * most recent entry. A new entry that is not closer to the root than the
+ * first one replaces whatever the second slot had.
+ *
+ * Entries that do not fit are forgotten, so a state may be expanded again
+ * but it is never taken as visited when it was not: duplicate pruning
+ * becomes approximate, the search stays correct.
+ */
+class BoundedBestCosts<S extends GPSState<?, S>> implements BestCosts<S> {
+	private static final int NO_COST = Integer.MAX_VALUE;
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	// IMPORTANT: slot 2 * bucket keeps the closest to the root, slot
+	// 2 * bucket + 1 the most recent
+	private final long[] keys;
+	private final int[] costs;
+	private final int bucketShift;
+	private int size = 0;
+	private long evictions = 0;
+
+	/**
+	 * @param capacity
+	 *            maximum number of entries, rounded down to a power of two
+	 *            (and to at least two).
+	 */
+	BoundedBestCosts(int capacity) {
+		if (capacity < 2) {
+			throw new IllegalArgumentException(
+					"Transposition table needs room for two entries");
+		}
+		int buckets = Integer.highestOneBit(capacity) / 2;
+		this.keys = new long[buckets * 2];
+		this.costs = new int[buckets * 2];
+		this.bucketShift = 64 - Integer.numberOfTrailingZeros(buckets);
+		Arrays.fill(costs, NO_COST);
+	}
+
+	@Override
+	public boolean isBetterThanCurrentBest(S state, int cost) {
+		return cost < getCost(state.getCompactKey());
+	}
+
+	@Override
+	public void updateBestCost(S state, int cost) {
+		updateBestCost(state.getCompactKey(), cost);
+	}
+
+	@Override
+	public void updateBestCost(long key, int cost) {
+		int depthSlot = slotOf(key);
+		int recentSlot = depthSlot + 1;
+
+		if (isKey(depthSlot, key)) {
+			costs[depthSlot] = cost;
+		} else if (isKey(recentSlot, key)) {
+			if (cost <= costs[depthSlot]) {
+				// IMPORTANT: now closer to the root than the kept one, swap
+				keys[recentSlot] = keys[depthSlot];
+				costs[recentSlot] = costs[depthSlot];
+				store(depthSlot, key, cost);
+			} else {
+				costs[recentSlot] = cost;
+			}
+		} else if (costs[depthSlot] == NO_COST) {
+			store(depthSlot, key, cost);
+		} else if (cost <= costs[depthSlot]) {
+			// the displaced entry is still more recent than the evicted one
+			evict(recentSlot);
+			store(recentSlot, keys[depthSlot], costs[depthSlot]);
+			store(depthSlot, key, cost);
+		} else {
+			evict(recentSlot);
+			store(recentSlot, key, cost);
+		}
+	}
+
+	@Override
+	public boolean contains(S state) {
+		return getCost(state.getCompactKey()) != NO_COST;
+	}
+
+	@Override
+	public void forEachCompactKey(CompactKeyCostConsumer consumer) {
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (costs[slot] != NO_COST) {
+				consumer.accept(keys[slot], costs[slot]);
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	int capacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Number of entries that were dropped to make room for others.
+	 */
+	long getEvictions() {
+		return evictions;
+	}
+
+	private int getCost(long key) {
+		int depthSlot = slotOf(key);
+		if (isKey(depthSlot, key)) {
+			return costs[depthSlot];
+		}
+		return isKey(depthSlot + 1, key) ? costs[depthSlot + 1] : NO_COST;
+	}
+
+	private boolean isKey(int slot, long key) {
+		return costs[slot] != NO_COST && keys[slot] == key;
+	}
+
+	private void store(int slot, long key, int cost) {
+		if (costs[slot] == NO_COST) {
+			size++;
+		}
+		keys[slot] = key;
+		costs[slot] = cost;
+	}
+
+	private void evict(int slot) {
+		if (costs[slot] != NO_COST) {
+			costs[slot] = NO_COST;
+			size--;
+			evictions++;
+		}
+	}
+
+	private int slotOf(long key) {
+		// IMPORTANT: the high bits of the product are the best mixed ones
+		int bucket = bucketShift == 64 ? 0
+				: (int) ((key * HASH_MULTIPLIER) >>> bucketShift);
+		return bucket * 2;
+	}
+}
@@ -0,0 +1,127 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * Queue ordered by a small integer priority (lowest first), backed by an
+ * array of FIFO buckets and a moving pointer to the lowest non-empty bucket.
+ * Both {@link #offer(Object)} and {@link #poll()} are amortized O(1) as long
+ * as the priorities span a bounded range, which is the case for the g, h and
+ * f values of a {@link GPSNode}.
+ *
+ * Elements with the same priority are polled in insertion order.
+ */
+public class BucketQueue<E> extends AbstractQueue<E> {
+	private static final int INITIAL_BUCKETS = 16;
+
+	private final ToIntFunction<? super E> priority;
+
+	private ArrayDeque<E>[] buckets;
+	// priority of the element stored in buckets[0]
+	private int offset;
+	// index of the lowest bucket that may be non-empty
+	private int minBucket;
+	private int size;
+
+	public BucketQueue(ToIntFunction<? super E> priority) {
+		this.priority = Objects.requireNonNull(priority);
+	}
+
+	@Override
+	public boolean offer(E e) {
+		int index = bucketIndexFor(priority.applyAsInt(e));
+		if (buckets[index] == null) {
+			buckets[index] = new ArrayDeque<>();
+		}
+		buckets[index].addLast(e);
+
+		if (size == 0 || index < minBucket) {
+			minBucket = index;
+		}
+		size++;
+		return true;
+	}
+
+	@Override
+	public E poll() {
+		if (size == 0) {
+			return null;
+		}
+		size--;
+		return lowestBucket().pollFirst();
+	}
+
+	@Override
+	public E peek() {
+		if (size == 0) {
+			return null;
+		}
+		return lowestBucket().peekFirst();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		buckets = null;
+		size = 0;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		if (buckets == null) {
+			return Arrays.<E> asList().iterator();
+		}
+		return Arrays.stream(buckets).filter(Objects::nonNull)
+				.flatMap(ArrayDeque::stream).iterator();
+	}
+
+	/**
+	 * Precondition: size > 0
+	 */
+	private ArrayDeque<E> lowestBucket() {
+		while (buckets[minBucket] == null || buckets[minBucket].isEmpty()) {
+			minBucket++;
+		}
+		return buckets[minBucket];
+	}
+
+	/**
+	 * Maps the given priority to a bucket index, growing the bucket array
+	 * (towards either end) if the priority falls outside of it.
+	 */
+	private int bucketIndexFor(int value) {
+		if (buckets == null) {
+			buckets = newBuckets(INITIAL_BUCKETS);
+			offset = value;
+			return 0;
+		}
+		if (value < offset) {
+			int missing = offset - value;
+			int grownBy = Math.max(missing, buckets.length);
+			ArrayDeque<E>[] newBuckets = newBuckets(buckets.length + grownBy);
+			System.arraycopy(buckets, 0, newBuckets, grownBy, buckets.length);
+			buckets = newBuckets;
+			offset -= grownBy;
+			minBucket += grownBy;
+		} else if (value - offset >= buckets.length) {
+			int needed = value - offset + 1;
+			buckets = Arrays.copyOf(buckets,
+					Math.max(needed, buckets.length * 2));
+		}
+		return value - offset;
+	}
+
+	@SuppressWarnings("unchecked")
+	private ArrayDeque<E>[] newBuckets(int length) {
+		return (ArrayDeque<E>[]) new ArrayDeque<?>[length];
+	}
+}
@@ -0,0 +1,33 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+/**
+ * Lets another thread stop a search that is running. The search notices it
+ * on its next step and returns a truncated {@link GPSSolution}.
+ */
+public class CancellationToken {
+	// IMPORTANT: never cancelled, nobody outside of the engine can reach it
+	static final CancellationToken NONE = new CancellationToken();
+
+	// IMPORTANT: cancelling this one does not cancel the parent
+	private final CancellationToken parent;
+	private volatile boolean cancelled = false;
+
+	public CancellationToken() {
+		this(null);
+	}
+
+	/**
+	 * A token that is also cancelled whenever the given one is.
+	 */
+	CancellationToken(CancellationToken parent) {
+		this.parent = parent;
+	}
+
+	public void cancel() {
+		this.cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled || (parent != null && parent.isCancelled());
+	}
+}
@@ -0,0 +1,40 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * When and where a search writes its checkpoints: every given number of
+ * explosions and whenever one is requested (from any thread). It belongs to
+ * the engine, so every solve keeps track of its own last checkpoint.
+ */
+class CheckpointSchedule {
+	private final Path file;
+	private final long explosionInterval;
+	private final AtomicBoolean requested = new AtomicBoolean(false);
+
+	CheckpointSchedule(Path file, long explosionInterval) {
+		this.file = file;
+		this.explosionInterval = explosionInterval;
+	}
+
+	Path getFile() {
+		return file;
+	}
+
+	void request() {
+		requested.set(true);
+	}
+
+	/**
+	 * Whether a checkpoint should be written now by a search that wrote its
+	 * last one (or started) at the given explosion count.
+	 */
+	boolean isDue(long explosionCount, long lastExplosionCount) {
+		// IMPORTANT: consumed even when the interval is due anyway, otherwise
+		// the request would write a second checkpoint right after this one
+		boolean wasRequested = requested.getAndSet(false);
+		return wasRequested
+				|| explosionCount - lastExplosionCount >= explosionInterval;
+	}
+}
@@ -0,0 +1,51 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import gnu.trove.impl.Constants;
+import gnu.trove.map.hash.TLongIntHashMap;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Best costs keyed by {@link GPSState#getCompactKey()}, so that visited
+ * states do not have to be kept alive.
+ */
+class CompactKeyBestCosts<S extends GPSState<?, S>> implements BestCosts<S> {
+	private static final int NO_COST = Integer.MAX_VALUE;
+
+	private final TLongIntHashMap bestCosts = new TLongIntHashMap(
+			Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR,
+			Constants.DEFAULT_LONG_NO_ENTRY_VALUE, NO_COST);
+
+	@Override
+	public boolean isBetterThanCurrentBest(S state, int cost) {
+		// IMPORTANT: unknown keys map to NO_COST, a single lookup is enough
+		return cost < bestCosts.get(state.getCompactKey());
+	}
+
+	@Override
+	public void updateBestCost(S state, int cost) {
+		updateBestCost(state.getCompactKey(), cost);
+	}
+
+	@Override
+	public void updateBestCost(long compactKey, int cost) {
+		bestCosts.put(compactKey, cost);
+	}
+
+	@Override
+	public boolean contains(S state) {
+		return bestCosts.containsKey(state.getCompactKey());
+	}
+
+	@Override
+	public void forEachCompactKey(CompactKeyCostConsumer consumer) {
+		bestCosts.forEachEntry((key, cost) -> {
+			consumer.accept(key, cost);
+			return true;
+		});
+	}
+
+	@Override
+	public int size() {
+		return bestCosts.size();
+	}
+}
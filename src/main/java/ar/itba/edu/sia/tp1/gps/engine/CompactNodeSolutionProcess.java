@@ -0,0 +1,163 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import gnu.trove.impl.Constants;
+import gnu.trove.map.hash.TLongIntHashMap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import ar.itba.edu.sia.tp1.gps.GPSProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * A_STAR or GREEDY over a {@link NodeStore}: the open list is a binary heap
+ * of node indexes and the best costs are keyed by compact state keys, so no
+ * {@link GPSNode} nor state is kept per node (except for the store's
+ * checkpoints). {@link GPSNode}s are only built for the solution's path.
+ *
+ * States are rebuilt when their node is polled, so each expansion replays
+ * a few rules on top of the usual work.
+ */
+class CompactNodeSolutionProcess<R extends GPSRule, S extends GPSState<R, S>>
+		implements
+			SolutionProcess<R, S> {
+	private static final int NO_COST = Integer.MAX_VALUE;
+
+	private final GPSProblem<R, S> problem;
+	private final List<R> rules;
+	private final boolean greedy;
+	private final int maxDepth;
+	private final SearchBudget<R, S> budget;
+
+	private final NodeStore<R, S> store;
+	private final TLongIntHashMap bestCosts = new TLongIntHashMap(
+			Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR,
+			Constants.DEFAULT_LONG_NO_ENTRY_VALUE, NO_COST);
+	private int[] openNodes = new int[1024];
+	private int openCount = 0;
+
+	private int lowestHNode;
+	private long explosionCount = 0;
+	private long analyzedNodes = 0;
+	private long generatedNodes = 0;
+
+	CompactNodeSolutionProcess(GPSProblem<R, S> problem,
+			SearchStrategy searchStrategy, int maxDepth,
+			SearchBudget<R, S> budget) {
+		this.problem = problem;
+		this.rules = problem.getRules();
+		this.greedy = searchStrategy == SearchStrategy.GREEDY;
+		this.maxDepth = maxDepth;
+		this.budget = budget;
+		this.store = new NodeStore<>(rules);
+	}
+
+	@Override
+	public GPSSolution<R, S> solve() {
+		S initialState = problem.getInitialState();
+		lowestHNode = store.addRoot(initialState,
+				problem.getHValue(initialState));
+		push(lowestHNode);
+
+		while (openCount > 0) {
+			// NOTE: the store keeps every node, open or not
+			if (budget.isExhausted(explosionCount, generatedNodes,
+					store.size())) {
+				budget.observe(store.toGPSNode(lowestHNode));
+				return budget.truncated(explosionCount, analyzedNodes);
+			}
+			int node = poll();
+			long key = store.getKey(node);
+			int gValue = store.getGValue(node);
+			if (gValue >= bestCosts.get(key)) {
+				// IMPORTANT: stale, dropped before rebuilding its state
+				continue;
+			}
+
+			analyzedNodes++;
+			if (store.getHValue(node) < store.getHValue(lowestHNode)) {
+				lowestHNode = node;
+			}
+			S state = store.getState(node);
+			if (problem.isGoal(state)) {
+				return GPSSolution.of(store.toGPSNode(node), explosionCount,
+						analyzedNodes);
+			}
+			explode(node, state, key, gValue);
+		}
+		return GPSSolution.failure(explosionCount, analyzedNodes);
+	}
+
+	private void explode(int node, S state, long key, int gValue) {
+		bestCosts.put(key, gValue);
+		explosionCount++;
+
+		for (int i = 0; i < rules.size(); i++) {
+			R rule = rules.get(i);
+			Optional<S> newStateOpt = state.apply(rule);
+
+			if (newStateOpt.isPresent()) {
+				S newState = newStateOpt.get();
+				int newGValue = gValue + rule.getCost();
+
+				if (newGValue > maxDepth) {
+					continue;
+				}
+				long newKey = newState.getCompactKey();
+				if (newGValue < bestCosts.get(newKey)) {
+					push(store.add(node, i, newGValue,
+							problem.getHValue(newState), newKey, newState));
+					generatedNodes++;
+				}
+			}
+		}
+	}
+
+	private int priority(int node) {
+		int hValue = store.getHValue(node);
+		return greedy ? hValue : store.getGValue(node) + hValue;
+	}
+
+	private void push(int node) {
+		if (openCount == openNodes.length) {
+			openNodes = Arrays.copyOf(openNodes, openCount * 2);
+		}
+		int i = openCount++;
+		int nodePriority = priority(node);
+		while (i > 0) {
+			int parent = (i - 1) / 2;
+			if (priority(openNodes[parent]) <= nodePriority) {
+				break;
+			}
+			openNodes[i] = openNodes[parent];
+			i = parent;
+		}
+		openNodes[i] = node;
+	}
+
+	private int poll() {
+		int result = openNodes[0];
+		int last = openNodes[--openCount];
+		int lastPriority = priority(last);
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= openCount) {
+				break;
+			}
+			if (child + 1 < openCount
+					&& priority(openNodes[child + 1]) < priority(openNodes[child])) {
+				child++;
+			}
+			if (priority(openNodes[child]) >= lastPriority) {
+				break;
+			}
+			openNodes[i] = openNodes[child];
+			i = child;
+		}
+		openNodes[i] = last;
+		return result;
+	}
+}
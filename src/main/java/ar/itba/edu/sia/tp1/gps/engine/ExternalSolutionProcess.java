@@ -0,0 +1,501 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+import ar.itba.edu.sia.tp1.gps.GPSCompactKeyProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * External memory A_STAR or BFS with delayed duplicate detection. Generated
+ * nodes are grouped in buckets by (g, h) and, once more than a given number
+ * of them are buffered, spilled to disk as sorted runs of compact state keys.
+ *
+ * Buckets are expanded by increasing f (g for BFS), then by increasing g.
+ * Before a bucket is expanded its runs are merged, which drops the
+ * duplicates within the bucket, and the already expanded buckets with the
+ * same h and a lower or equal g are subtracted from it (a state always has
+ * the same h, so it can only be in those). Both are sequential scans of
+ * sorted files.
+ *
+ * Every record also keeps its parent's key and the rule that led to it, so
+ * the solution's path is rebuilt at the end by looking each parent up in the
+ * expanded buckets.
+ */
+class ExternalSolutionProcess<R extends GPSRule, S extends GPSState<R, S>>
+		implements
+			SolutionProcess<R, S> {
+	private static final int ROOT_RULE = -1;
+
+	private static final Comparator<Record> byKey = (r1, r2) -> Long.compare(
+			r1.key, r2.key);
+
+	private final GPSCompactKeyProblem<R, S> problem;
+	private final List<R> rules;
+	private final boolean informed;
+	private final int maxDepth;
+	private final Path spillDirectory;
+	private final int maxBufferedNodes;
+	private final SearchBudget<R, S> budget;
+
+	private final Map<Long, Bucket> buckets = new HashMap<>();
+	private final Map<Integer, List<Bucket>> bucketsByHValue = new HashMap<>();
+	private Path runDirectory;
+	private int bufferedNodes = 0;
+	private int nextRunId = 0;
+
+	private Record lowestHRecord;
+	private int lowestHValue;
+	private Bucket lowestHBucket;
+	private boolean truncated = false;
+	private long explosionCount = 0;
+	private long analyzedNodes = 0;
+	private long generatedNodes = 0;
+
+	/**
+	 * @param spillDirectory
+	 *            where the runs are written, inside a temporary directory
+	 *            that is deleted once the search is over.
+	 */
+	ExternalSolutionProcess(GPSCompactKeyProblem<R, S> problem,
+			SearchStrategy searchStrategy, int maxDepth, Path spillDirectory,
+			int maxBufferedNodes, SearchBudget<R, S> budget) {
+		this.problem = problem;
+		this.rules = problem.getRules();
+		this.informed = searchStrategy.isInformed();
+		this.maxDepth = maxDepth;
+		this.spillDirectory = spillDirectory;
+		this.maxBufferedNodes = maxBufferedNodes;
+		this.budget = budget;
+	}
+
+	@Override
+	public GPSSolution<R, S> solve() {
+		try {
+			runDirectory = Files.createTempDirectory(spillDirectory,
+					"gps-frontier");
+			try {
+				return search();
+			} finally {
+				delete(runDirectory);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private GPSSolution<R, S> search() throws IOException {
+		S initialState = problem.getInitialState();
+		add(new Record(initialState.getCompactKey(), 0, ROOT_RULE), 0,
+				getHValue(initialState));
+
+		Bucket bucket;
+		while ((bucket = nextBucket()) != null) {
+			Record goal = expand(bucket);
+			if (goal != null) {
+				return GPSSolution.of(rebuildPath(goal, bucket.gValue),
+						explosionCount, analyzedNodes);
+			}
+			if (truncated) {
+				budget.observe(rebuildPath(lowestHRecord,
+						lowestHBucket.gValue));
+				return budget.truncated(explosionCount, analyzedNodes);
+			}
+		}
+		return GPSSolution.failure(explosionCount, analyzedNodes);
+	}
+
+	private int getHValue(S state) {
+		return informed ? problem.getHValue(state) : 0;
+	}
+
+	private void add(Record record, int gValue, int hValue) throws IOException {
+		long id = ((long) gValue << 32) | (hValue & 0xFFFFFFFFL);
+		Bucket bucket = buckets.get(id);
+		if (bucket == null) {
+			bucket = new Bucket(gValue, hValue);
+			buckets.put(id, bucket);
+			bucketsByHValue.computeIfAbsent(hValue, h -> new ArrayList<>())
+					.add(bucket);
+		}
+		bucket.buffer.add(record);
+		bufferedNodes++;
+		if (bufferedNodes > maxBufferedNodes) {
+			spillAll();
+		}
+	}
+
+	private Bucket nextBucket() {
+		Bucket next = null;
+		for (Bucket bucket : buckets.values()) {
+			if (bucket.isOpen()
+					&& (next == null || bucket.fValue() < next.fValue() || (bucket
+							.fValue() == next.fValue() && bucket.gValue < next.gValue))) {
+				next = bucket;
+			}
+		}
+		return next;
+	}
+
+	private void spillAll() throws IOException {
+		for (Bucket bucket : buckets.values()) {
+			if (!bucket.buffer.isEmpty()) {
+				bucket.runs.add(writeRun(bucket.buffer));
+				bufferedNodes -= bucket.buffer.size();
+				bucket.buffer.clear();
+			}
+		}
+	}
+
+	private Run writeRun(List<Record> records) throws IOException {
+		records.sort(byKey);
+		Run run = new Run(runDirectory.resolve("run-" + nextRunId++));
+		try (RunWriter writer = new RunWriter(run)) {
+			for (Record record : records) {
+				writer.write(record);
+			}
+		}
+		return run;
+	}
+
+	/**
+	 * Merges the bucket's runs and expands every record that was not
+	 * expanded before, writing them to a new run of expanded records.
+	 *
+	 * @return the first goal record, if any.
+	 */
+	private Record expand(Bucket bucket) throws IOException {
+		List<Record> buffer = bucket.buffer;
+		List<Run> mergedRuns = bucket.runs;
+		bufferedNodes -= buffer.size();
+		bucket.buffer = new ArrayList<>();
+		bucket.runs = new ArrayList<>();
+
+		List<RecordSource> sources = new ArrayList<>();
+		List<RecordSource> expanded = new ArrayList<>();
+		Run expandedRun = new Run(runDirectory.resolve("run-" + nextRunId++));
+		try (RunWriter writer = new RunWriter(expandedRun)) {
+			buffer.sort(byKey);
+			sources.add(new BufferSource(buffer));
+			for (Run run : mergedRuns) {
+				sources.add(new RunSource(run));
+			}
+			for (Bucket other : bucketsByHValue.get(bucket.hValue)) {
+				if (other.gValue <= bucket.gValue) {
+					for (Run run : other.expandedRuns) {
+						expanded.add(new RunSource(run));
+					}
+				}
+			}
+
+			PriorityQueue<RecordSource> merge = new PriorityQueue<>(
+					(s1, s2) -> Long.compare(s1.current().key,
+							s2.current().key));
+			for (RecordSource source : sources) {
+				if (source.hasCurrent()) {
+					merge.add(source);
+				}
+			}
+
+			Record last = null;
+			while (!merge.isEmpty()) {
+				RecordSource source = merge.poll();
+				Record record = source.current();
+				source.advance();
+				if (source.hasCurrent()) {
+					merge.add(source);
+				}
+				if ((last != null && last.key == record.key)
+						|| isExpanded(expanded, record.key)) {
+					continue;
+				}
+				last = record;
+
+				if (budget.isExhausted(explosionCount, generatedNodes)) {
+					truncated = true;
+					break;
+				}
+				writer.write(record);
+				analyzedNodes++;
+				S state = problem.getState(record.key);
+				if (lowestHRecord == null || bucket.hValue < lowestHValue) {
+					lowestHRecord = record;
+					lowestHValue = bucket.hValue;
+					lowestHBucket = bucket;
+				}
+				if (problem.isGoal(state)) {
+					return record;
+				}
+				explode(record.key, state, bucket.gValue);
+			}
+			return null;
+		} finally {
+			for (RecordSource source : sources) {
+				source.close();
+			}
+			for (RecordSource source : expanded) {
+				source.close();
+			}
+			for (Run run : mergedRuns) {
+				Files.delete(run.path);
+			}
+			bucket.expandedRuns.add(expandedRun);
+		}
+	}
+
+	/**
+	 * Both the records being merged and the expanded runs are sorted by key,
+	 * so the expanded runs only move forward.
+	 */
+	private boolean isExpanded(List<RecordSource> expanded, long key)
+			throws IOException {
+		for (RecordSource source : expanded) {
+			while (source.hasCurrent() && source.current().key < key) {
+				source.advance();
+			}
+			if (source.hasCurrent() && source.current().key == key) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void explode(long key, S state, int gValue) throws IOException {
+		explosionCount++;
+		for (int i = 0; i < rules.size(); i++) {
+			R rule = rules.get(i);
+			Optional<S> newStateOpt = state.apply(rule);
+
+			if (newStateOpt.isPresent()) {
+				S newState = newStateOpt.get();
+				int newGValue = gValue + rule.getCost();
+
+				if (newGValue <= maxDepth) {
+					add(new Record(newState.getCompactKey(), key, i),
+							newGValue, getHValue(newState));
+					generatedNodes++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Follows the parents' keys back to the root, then replays the rules from
+	 * the initial state.
+	 */
+	private GPSNode<R, S> rebuildPath(Record record, int gValue)
+			throws IOException {
+		Deque<Integer> ruleIndexes = new ArrayDeque<>();
+		Record curr = record;
+		int currGValue = gValue;
+		while (curr.ruleIndex != ROOT_RULE) {
+			ruleIndexes.push(curr.ruleIndex);
+			currGValue -= rules.get(curr.ruleIndex).getCost();
+			curr = findExpanded(curr.parentKey, currGValue);
+		}
+
+		S state = problem.getInitialState();
+		GPSNode<R, S> node = new GPSNode<>(null, state, 0,
+				problem.getHValue(state));
+		for (int ruleIndex : ruleIndexes) {
+			R rule = rules.get(ruleIndex);
+			state = state.apply(rule).orElseThrow(
+					() -> new IllegalStateException(
+							"Rule could not be replayed, states must be deterministic"));
+			node = new GPSNode<>(node, rule, state, node.getGValue()
+					+ rule.getCost(), problem.getHValue(state));
+		}
+		return node;
+	}
+
+	private Record findExpanded(long key, int gValue) throws IOException {
+		for (Bucket bucket : buckets.values()) {
+			if (bucket.gValue != gValue) {
+				continue;
+			}
+			for (Run run : bucket.expandedRuns) {
+				try (RunSource source = new RunSource(run)) {
+					while (source.hasCurrent() && source.current().key < key) {
+						source.advance();
+					}
+					if (source.hasCurrent() && source.current().key == key) {
+						return source.current();
+					}
+				}
+			}
+		}
+		throw new IllegalStateException("Parent " + key + " was not expanded");
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			Iterator<Path> it = paths.sorted(Comparator.reverseOrder())
+					.iterator();
+			while (it.hasNext()) {
+				Files.delete(it.next());
+			}
+		}
+	}
+
+	private static class Record {
+		private final long key;
+		private final long parentKey;
+		private final int ruleIndex;
+
+		private Record(long key, long parentKey, int ruleIndex) {
+			this.key = key;
+			this.parentKey = parentKey;
+			this.ruleIndex = ruleIndex;
+		}
+	}
+
+	private static class Run {
+		private final Path path;
+		private long size = 0;
+
+		private Run(Path path) {
+			this.path = path;
+		}
+	}
+
+	private class Bucket {
+		private final int gValue;
+		private final int hValue;
+		private List<Record> buffer = new ArrayList<>();
+		// NOTE: sorted, but may share keys with each other
+		private List<Run> runs = new ArrayList<>();
+		private final List<Run> expandedRuns = new ArrayList<>();
+
+		private Bucket(int gValue, int hValue) {
+			this.gValue = gValue;
+			this.hValue = hValue;
+		}
+
+		private int fValue() {
+			return gValue + hValue;
+		}
+
+		private boolean isOpen() {
+			return !buffer.isEmpty() || !runs.isEmpty();
+		}
+	}
+
+	private static class RunWriter implements AutoCloseable {
+		private final Run run;
+		private final DataOutputStream out;
+
+		private RunWriter(Run run) throws IOException {
+			this.run = run;
+			this.out = new DataOutputStream(new BufferedOutputStream(
+					Files.newOutputStream(run.path)));
+		}
+
+		private void write(Record record) throws IOException {
+			out.writeLong(record.key);
+			out.writeLong(record.parentKey);
+			out.writeInt(record.ruleIndex);
+			run.size++;
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+	}
+
+	private interface RecordSource extends AutoCloseable {
+		boolean hasCurrent();
+
+		Record current();
+
+		void advance() throws IOException;
+
+		@Override
+		void close() throws IOException;
+	}
+
+	private static class BufferSource implements RecordSource {
+		private final Iterator<Record> records;
+		private Record current;
+
+		private BufferSource(List<Record> records) {
+			this.records = records.iterator();
+			advance();
+		}
+
+		@Override
+		public boolean hasCurrent() {
+			return current != null;
+		}
+
+		@Override
+		public Record current() {
+			return current;
+		}
+
+		@Override
+		public void advance() {
+			current = records.hasNext() ? records.next() : null;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static class RunSource implements RecordSource {
+		private final DataInputStream in;
+		private long remaining;
+		private Record current;
+
+		private RunSource(Run run) throws IOException {
+			this.in = new DataInputStream(new BufferedInputStream(
+					Files.newInputStream(run.path)));
+			this.remaining = run.size;
+			advance();
+		}
+
+		@Override
+		public boolean hasCurrent() {
+			return current != null;
+		}
+
+		@Override
+		public Record current() {
+			return current;
+		}
+
+		@Override
+		public void advance() throws IOException {
+			if (remaining == 0) {
+				current = null;
+				return;
+			}
+			remaining--;
+			current = new Record(in.readLong(), in.readLong(), in.readInt());
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+}
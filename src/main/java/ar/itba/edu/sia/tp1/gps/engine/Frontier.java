@@ -0,0 +1,19 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+/**
+ * Kind of open node collection a {@link SearchStrategy} is run on.
+ */
+public enum Frontier {
+	/**
+	 * Nodes are polled in insertion order (queue).
+	 */
+	FIFO,
+	/**
+	 * The most recently inserted node is polled first (stack).
+	 */
+	LIFO,
+	/**
+	 * Nodes are polled by the strategy's priority (lowest first).
+	 */
+	PRIORITY;
+}
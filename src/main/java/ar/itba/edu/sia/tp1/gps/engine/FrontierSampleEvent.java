@@ -0,0 +1,32 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event with the size of the open and closed sets, taken
+ * every {@link #SAMPLE_INTERVAL} analyzed nodes.
+ */
+@Name("ar.itba.edu.sia.tp1.gps.FrontierSample")
+@Label("GPS Frontier Sample")
+@Category("GPS")
+@Description("Size of the open nodes and the best costs table during a search")
+@StackTrace(false)
+class FrontierSampleEvent extends Event {
+	// IMPORTANT: a power of 2, so that it can be used as a mask
+	static final long SAMPLE_INTERVAL = 4096;
+
+	@Label("Open Nodes")
+	int openNodes;
+
+	@Label("Closed States")
+	@Description("States in the best costs table")
+	int closedStates;
+
+	@Label("Analyzed Nodes")
+	long analyzedNodes;
+}
@@ -1,18 +1,58 @@
 package ar.itba.edu.sia.tp1.gps.engine;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.ToIntFunction;
 
+import ar.itba.edu.sia.tp1.gps.GPSBidirectionalProblem;
+import ar.itba.edu.sia.tp1.gps.GPSCompactKeyProblem;
 import ar.itba.edu.sia.tp1.gps.GPSProblem;
 import ar.itba.edu.sia.tp1.gps.GPSRule;
 import ar.itba.edu.sia.tp1.gps.GPSState;
 
 public abstract class GPSEngine<R extends GPSRule, S extends GPSState<R, S>> {
+	// IMPORTANT: weights are kept with 2 decimals to keep integer priorities
+	private static final int WEIGHT_SCALE = 100;
+
 	private final SearchStrategy searchStrategy;
 	private final GPSProblem<R, S> problem;
 	private final int maxSolutionDepth;
 
+	private boolean bucketedOpenNodes = false;
+	private int workers = 1;
+	private boolean bidirectional = false;
+	private boolean deferredHeuristic = false;
+	private int maxNodesInMemory = Integer.MAX_VALUE;
+	private double heuristicWeight = 2;
+	private double weightDecrement = 0.5;
+	private int beamWidth = 100;
+	private long maxExplosions = SearchBudget.UNLIMITED;
+	private long maxGeneratedNodes = SearchBudget.UNLIMITED;
+	private long maxStoredNodes = SearchBudget.UNLIMITED;
+	private Duration timeLimit = null;
+	private CancellationToken cancellationToken = CancellationToken.NONE;
+	private SearchListener<R, S> searchListener = null;
+	private boolean collectStatistics = false;
+	private boolean compactNodes = false;
+	private Path spillDirectory = null;
+	private int maxBufferedNodes;
+	private CheckpointSchedule checkpointSchedule = null;
+	private Path resumeFile = null;
+	private int transpositionTableCapacity = 0;
+	private boolean inPlaceStates = false;
+	private ImprovedSolutionListener<R, S> improvedSolutionListener = (
+			solution, bound) -> {
+	};
+
 	public GPSEngine(GPSProblem<R, S> problem, SearchStrategy searchStrategy,
 			int maxSolutionDepth) {
 		this.problem = problem;
@@ -20,34 +60,584 @@ public abstract class GPSEngine<R extends GPSRule, S extends GPSState<R, S>> {
 		this.maxSolutionDepth = maxSolutionDepth;
 	}
 
+	public GPSProblem<R, S> getProblem() {
+		return problem;
+	}
+
+	public SearchStrategy getSearchStrategy() {
+		return searchStrategy;
+	}
+
+	/**
+	 * Keeps the open nodes in a {@link BucketQueue} keyed by the strategy's
+	 * integer priority instead of a comparator-ordered heap.
+	 */
+	public GPSEngine<R, S> withBucketedOpenNodes() {
+		this.bucketedOpenNodes = true;
+		return this;
+	}
+
+	/**
+	 * Spreads the search over the given number of threads. Only A_STAR (as
+	 * hash distributed A*), BFS (expanding each depth layer in parallel) and
+	 * BEAM (scoring each layer's candidates in parallel) can run on more than
+	 * one worker.
+	 */
+	public GPSEngine<R, S> withWorkers(int workers) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("At least one worker is needed");
+		}
+		this.workers = workers;
+		return this;
+	}
+
+	/**
+	 * Also searches backwards from the goal states and stops when both
+	 * searches meet. Requires a {@link GPSBidirectionalProblem} and either BFS
+	 * or A_STAR (front-to-end).
+	 */
+	public GPSEngine<R, S> bidirectional() {
+		this.bidirectional = true;
+		return this;
+	}
+
+	/**
+	 * Queues new nodes with an estimate of their heuristic (their parent's
+	 * minus the cost of the rule) and only computes the actual value once a
+	 * node is polled, queuing it again if its priority changes. Only applies
+	 * to A_STAR and GREEDY.
+	 */
+	public GPSEngine<R, S> withDeferredHeuristic() {
+		this.deferredHeuristic = true;
+		return this;
+	}
+
+	/**
+	 * Limits the number of nodes SMA_STAR keeps in memory.
+	 */
+	public GPSEngine<R, S> withNodeBudget(int maxNodesInMemory) {
+		if (maxNodesInMemory < 2) {
+			throw new IllegalArgumentException(
+					"The budget must fit at least the root and one child");
+		}
+		this.maxNodesInMemory = maxNodesInMemory;
+		return this;
+	}
+
+	/**
+	 * Sets w in f = g + w * h, fixed for WEIGHTED_A_STAR and the starting
+	 * one for ARA_STAR.
+	 */
+	public GPSEngine<R, S> withHeuristicWeight(double heuristicWeight) {
+		if (heuristicWeight < 1) {
+			throw new IllegalArgumentException("Weight can't be lower than 1");
+		}
+		this.heuristicWeight = heuristicWeight;
+		return this;
+	}
+
+	/**
+	 * Sets how much ARA_STAR lowers the weight after each solution.
+	 */
+	public GPSEngine<R, S> withWeightDecrement(double weightDecrement) {
+		if (weightDecrement <= 0) {
+			throw new IllegalArgumentException("Decrement must be positive");
+		}
+		this.weightDecrement = weightDecrement;
+		return this;
+	}
+
+	/**
+	 * Receives every solution ARA_STAR finds before the final one.
+	 */
+	public GPSEngine<R, S> onImprovedSolution(
+			ImprovedSolutionListener<R, S> improvedSolutionListener) {
+		this.improvedSolutionListener = improvedSolutionListener;
+		return this;
+	}
+
+	/**
+	 * Sets how many nodes of each depth layer BEAM keeps.
+	 */
+	public GPSEngine<R, S> withBeamWidth(int beamWidth) {
+		if (beamWidth < 1) {
+			throw new IllegalArgumentException("Beam must keep some node");
+		}
+		this.beamWidth = beamWidth;
+		return this;
+	}
+
+	/**
+	 * Stops the search (returning a truncated solution) once this many nodes
+	 * were exploded.
+	 */
+	public GPSEngine<R, S> withMaxExplosions(long maxExplosions) {
+		if (maxExplosions < 0) {
+			throw new IllegalArgumentException("Budget can't be negative");
+		}
+		this.maxExplosions = maxExplosions;
+		return this;
+	}
+
+	/**
+	 * Stops the search (returning a truncated solution) once this many nodes
+	 * were generated.
+	 */
+	public GPSEngine<R, S> withMaxGeneratedNodes(long maxGeneratedNodes) {
+		if (maxGeneratedNodes < 0) {
+			throw new IllegalArgumentException("Budget can't be negative");
+		}
+		this.maxGeneratedNodes = maxGeneratedNodes;
+		return this;
+	}
+
+	/**
+	 * Stops the search (returning a truncated solution) once it holds this
+	 * many nodes, counting its open nodes and the states it has closed. Only
+	 * applies to the strategies that keep both in memory on a single
+	 * worker (A_STAR, GREEDY, WEIGHTED_A_STAR, IDDFS, BFS and DFS, also
+	 * with compact nodes or bidirectionally, ARA_STAR and BEAM) and to
+	 * layered BFS. IDA_STAR, SMA_STAR, in-place states and external memory
+	 * bound their memory on their own, and HDA* does not count its
+	 * workers' nodes.
+	 */
+	public GPSEngine<R, S> withMaxStoredNodes(long maxStoredNodes) {
+		if (maxStoredNodes < 0) {
+			throw new IllegalArgumentException("Budget can't be negative");
+		}
+		this.maxStoredNodes = maxStoredNodes;
+		return this;
+	}
+
+	/**
+	 * Stops the search (returning a truncated solution) once it has been
+	 * running for this long. Counted from each call to {@link #solve()}.
+	 */
+	public GPSEngine<R, S> withTimeLimit(Duration timeLimit) {
+		if (timeLimit.isNegative()) {
+			throw new IllegalArgumentException("Time limit can't be negative");
+		}
+		this.timeLimit = timeLimit;
+		return this;
+	}
+
+	/**
+	 * Stops the search (returning a truncated solution) once the token is
+	 * cancelled.
+	 */
+	public GPSEngine<R, S> withCancellationToken(
+			CancellationToken cancellationToken) {
+		this.cancellationToken = cancellationToken;
+		return this;
+	}
+
+	/**
+	 * Notifies the listener of every step of the search. Can be called more
+	 * than once, listeners are notified in the order they were added.
+	 */
+	public GPSEngine<R, S> withSearchListener(SearchListener<R, S> listener) {
+		this.searchListener = searchListener == null ? listener
+				: searchListener.andThen(listener);
+		return this;
+	}
+
+	/**
+	 * Collects {@link SearchStatistics} into each solution. Only applies to
+	 * the strategies that poll an open list on a single worker (A_STAR,
+	 * GREEDY, WEIGHTED_A_STAR, IDDFS, BFS and DFS) without compact nodes,
+	 * external memory nor in-place states, the others do not report their
+	 * steps.
+	 */
+	public GPSEngine<R, S> withStatistics() {
+		this.collectStatistics = true;
+		return this;
+	}
+
+	/**
+	 * Keeps the search tree in primitive arrays instead of {@link GPSNode}s
+	 * and rebuilds states from periodic checkpoints when they are needed.
+	 * Only applies to A_STAR and GREEDY, and requires states with compact
+	 * keys. Search listeners are not notified.
+	 */
+	public GPSEngine<R, S> withCompactNodes() {
+		this.compactNodes = true;
+		return this;
+	}
+
+	/**
+	 * Keeps the frontier on disk, under the given directory, as sorted runs
+	 * of compact state keys, spilling them whenever more than the given
+	 * number of nodes are buffered in memory. Duplicates are detected by
+	 * merging the runs. Only applies to A_STAR and BFS, and requires a
+	 * {@link GPSCompactKeyProblem}.
+	 */
+	public GPSEngine<R, S> withExternalFrontier(Path spillDirectory,
+			int maxBufferedNodes) {
+		if (maxBufferedNodes < 1) {
+			throw new IllegalArgumentException(
+					"At least one node has to fit in memory");
+		}
+		this.spillDirectory = spillDirectory;
+		this.maxBufferedNodes = maxBufferedNodes;
+		return this;
+	}
+
+	/**
+	 * Walks a single state that is changed in place and reverted on the way
+	 * back instead of building a new state for every rule, see
+	 * {@link GPSState#applyInPlace(GPSRule)}. Only applies to DFS and IDDFS,
+	 * and requires states that support it and have compact keys. Search
+	 * listeners are not notified.
+	 */
+	public GPSEngine<R, S> withInPlaceStates() {
+		this.inPlaceStates = true;
+		return this;
+	}
+
+	/**
+	 * Replaces the table of best costs with a fixed-size transposition table
+	 * of the given number of entries, which keeps those closest to the root
+	 * and the most recent ones. Forgotten states may be expanded again, so
+	 * duplicate pruning becomes approximate. Meant for DFS, IDDFS and
+	 * IDA_STAR (which otherwise only avoids cycles in the current path), and
+	 * requires states with compact keys.
+	 */
+	public GPSEngine<R, S> withTranspositionTable(int capacity) {
+		if (!problem.getInitialState().hasCompactKey()) {
+			throw new IllegalStateException(
+					"Transposition tables need states with compact keys");
+		}
+		if (capacity < 2) {
+			throw new IllegalArgumentException(
+					"Transposition table needs room for two entries");
+		}
+		this.transpositionTableCapacity = capacity;
+		return this;
+	}
+
+	/**
+	 * Writes a checkpoint of the search to the given file every given number
+	 * of explosions, and whenever {@link #requestCheckpoint()} is called.
+	 * Only applies to the strategies that poll an open list on a single
+	 * worker (A_STAR, GREEDY, WEIGHTED_A_STAR, IDDFS, BFS and DFS), and
+	 * requires a {@link GPSCompactKeyProblem}.
+	 */
+	public GPSEngine<R, S> withCheckpoints(Path file, long explosionInterval) {
+		requireCompactKeys();
+		if (explosionInterval < 1) {
+			throw new IllegalArgumentException("Interval must be positive");
+		}
+		this.checkpointSchedule = new CheckpointSchedule(file,
+				explosionInterval);
+		return this;
+	}
+
+	/**
+	 * Asks the running search to write a checkpoint as soon as it can. Can
+	 * be called from any thread.
+	 */
+	public void requestCheckpoint() {
+		if (checkpointSchedule == null) {
+			throw new IllegalStateException("Checkpoints are not enabled");
+		}
+		checkpointSchedule.request();
+	}
+
+	/**
+	 * Makes the next {@link #solve()} pick the search up from a checkpoint
+	 * written by an engine with the same problem and strategy.
+	 */
+	public GPSEngine<R, S> resumingFrom(Path checkpointFile) {
+		requireCompactKeys();
+		this.resumeFile = checkpointFile;
+		return this;
+	}
+
+	private void requireCompactKeys() {
+		if (!(problem instanceof GPSCompactKeyProblem)
+				|| !problem.getInitialState().hasCompactKey()) {
+			throw new IllegalStateException(
+					"Problem cannot rebuild states from compact keys");
+		}
+	}
+
 	public GPSSolution<R, S> solve() {
-		GPSSolutionProcess<R, S> solutionProcess = buildSolutionProcess();
-		return solutionProcess.solve();
+		return solve(cancellationToken);
 	}
 
-	private GPSSolutionProcess<R, S> buildSolutionProcess() {
-		return new GPSSolutionProcess<>(problem, () -> buildOpenNodes(),
-				searchStrategy, maxSolutionDepth);
+	/**
+	 * Solves on the given executor. Cancelling the future, or completing it
+	 * exceptionally in any other way (for instance with a timeout), cancels
+	 * the search, which stops at its next step. The time limit, if any,
+	 * still applies and completes the future with a truncated solution.
+	 */
+	public CompletableFuture<GPSSolution<R, S>> solveAsync(Executor executor) {
+		CancellationToken token = newCancellationToken();
+		CompletableFuture<GPSSolution<R, S>> future = CompletableFuture
+				.supplyAsync(() -> solve(token), executor);
+		future.whenComplete((solution, error) -> {
+			if (error != null) {
+				token.cancel();
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * A token for a single solve, also cancelled whenever the engine's one
+	 * is.
+	 */
+	CancellationToken newCancellationToken() {
+		return new CancellationToken(cancellationToken);
+	}
+
+	/**
+	 * Solves until the given token (instead of the engine's one) is
+	 * cancelled.
+	 */
+	GPSSolution<R, S> solve(CancellationToken token) {
+		SearchStatistics<R, S> statistics = collectStatistics ? new SearchStatistics<>()
+				: null;
+		SearchListener<R, S> listener = searchListener;
+		if (statistics != null) {
+			listener = listener == null ? statistics : listener
+					.andThen(statistics);
+		}
+
+		SolveEvent event = new SolveEvent();
+		event.begin();
+		SolutionProcess<R, S> solutionProcess = buildSolutionProcess(
+				new SearchBudget<>(maxExplosions, maxGeneratedNodes,
+						maxStoredNodes, timeLimit, token), listener);
+		if ((checkpointSchedule != null || resumeFile != null)
+				&& !(solutionProcess instanceof GPSSolutionProcess)) {
+			throw new IllegalStateException(searchStrategy
+					+ " does not support checkpoints with this configuration");
+		}
+		if (statistics != null
+				&& !(solutionProcess instanceof GPSSolutionProcess)) {
+			throw new IllegalStateException(searchStrategy
+					+ " does not support statistics with this configuration");
+		}
+		GPSSolution<R, S> solution = solutionProcess.solve();
+		event.end();
+		if (event.shouldCommit()) {
+			describe(event, solution);
+			event.commit();
+		}
+		return statistics == null ? solution : solution
+				.withStatistics(statistics);
+	}
+
+	private void describe(SolveEvent event, GPSSolution<R, S> solution) {
+		event.strategy = searchStrategy.name();
+		event.problem = problem.getClass().getSimpleName();
+		event.heuristic = problem.getHeuristic()
+				.map(heuristic -> heuristic.getClass().getSimpleName())
+				.orElse(null);
+		event.rules = problem.getRules().size();
+		event.explosions = solution.getExplosionCount();
+		event.analyzedNodes = solution.getAnalyzedNodes();
+		event.success = solution.isSuccess();
+		event.truncated = solution.isTruncated();
+	}
+
+	private SolutionProcess<R, S> buildSolutionProcess(
+			SearchBudget<R, S> budget, SearchListener<R, S> listener) {
+		if (bidirectional) {
+			return buildBidirectionalSolutionProcess(budget);
+		}
+		if (workers > 1) {
+			return buildParallelSolutionProcess(budget);
+		}
+		if (compactNodes) {
+			return buildCompactSolutionProcess(budget);
+		}
+		if (spillDirectory != null) {
+			return buildExternalSolutionProcess(budget);
+		}
+		if (inPlaceStates) {
+			return buildInPlaceSolutionProcess(budget);
+		}
+		switch (searchStrategy) {
+		case IDA_STAR:
+			IDAStarSolutionProcess<R, S> idaStar = new IDAStarSolutionProcess<>(
+					problem, maxSolutionDepth, budget);
+			if (transpositionTableCapacity > 0) {
+				idaStar.withTranspositionTable(transpositionTableCapacity);
+			}
+			return idaStar;
+		case SMA_STAR:
+			return new SMAStarSolutionProcess<>(problem, maxSolutionDepth,
+					maxNodesInMemory, budget);
+		case ARA_STAR:
+			return new ARAStarSolutionProcess<>(problem, maxSolutionDepth,
+					heuristicWeight, weightDecrement, improvedSolutionListener,
+					budget);
+		case BEAM:
+			return new BeamSolutionProcess<>(problem, maxSolutionDepth,
+					beamWidth, 1, budget);
+		default:
+			GPSSolutionProcess<R, S> solutionProcess = new GPSSolutionProcess<>(
+					problem, () -> buildOpenNodes(), searchStrategy,
+					maxSolutionDepth, deferredHeuristic, budget, listener);
+			if (transpositionTableCapacity > 0) {
+				solutionProcess
+						.withTranspositionTable(transpositionTableCapacity);
+			}
+			if (checkpointSchedule != null) {
+				solutionProcess.withCheckpoints(checkpointSchedule);
+			}
+			if (resumeFile != null) {
+				solutionProcess.resumingFrom(readCheckpoint(resumeFile));
+			}
+			return solutionProcess;
+		}
+	}
+
+	private SearchCheckpoint<R, S> readCheckpoint(Path file) {
+		try {
+			return SearchCheckpoint.read(file,
+					(GPSCompactKeyProblem<R, S>) problem);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private SolutionProcess<R, S> buildParallelSolutionProcess(
+			SearchBudget<R, S> budget) {
+		switch (searchStrategy) {
+		case A_STAR:
+			return new HDAStarSolutionProcess<>(problem,
+					() -> buildOpenNodes(), maxSolutionDepth, workers, budget);
+		case BFS:
+			return new LayeredBFSSolutionProcess<>(problem, maxSolutionDepth,
+					workers, budget);
+		case BEAM:
+			return new BeamSolutionProcess<>(problem, maxSolutionDepth,
+					beamWidth, workers, budget);
+		default:
+			throw new IllegalStateException(searchStrategy
+					+ " cannot run on more than one worker");
+		}
+	}
+
+	private SolutionProcess<R, S> buildInPlaceSolutionProcess(
+			SearchBudget<R, S> budget) {
+		S initialState = problem.getInitialState();
+		if (!initialState.supportsInPlace() || !initialState.hasCompactKey()) {
+			throw new IllegalStateException(
+					"In place states need states that support it and have compact keys");
+		}
+		switch (searchStrategy) {
+		case DFS:
+		case IDDFS:
+			int capacity = transpositionTableCapacity;
+			return new InPlaceSolutionProcess<>(problem, searchStrategy,
+					maxSolutionDepth, () -> capacity > 0
+							? new BoundedBestCosts<>(capacity)
+							: new CompactKeyBestCosts<>(), budget);
+		default:
+			throw new IllegalStateException(searchStrategy
+					+ " cannot run on in place states");
+		}
+	}
+
+	private SolutionProcess<R, S> buildCompactSolutionProcess(
+			SearchBudget<R, S> budget) {
+		if (!problem.getInitialState().hasCompactKey()) {
+			throw new IllegalStateException(
+					"Compact nodes need states with compact keys");
+		}
+		switch (searchStrategy) {
+		case A_STAR:
+		case GREEDY:
+			return new CompactNodeSolutionProcess<>(problem, searchStrategy,
+					maxSolutionDepth, budget);
+		default:
+			throw new IllegalStateException(searchStrategy
+					+ " cannot run on compact nodes");
+		}
+	}
+
+	private SolutionProcess<R, S> buildExternalSolutionProcess(
+			SearchBudget<R, S> budget) {
+		if (!(problem instanceof GPSCompactKeyProblem)
+				|| !problem.getInitialState().hasCompactKey()) {
+			throw new IllegalStateException(
+					"Problem cannot rebuild states from compact keys");
+		}
+		switch (searchStrategy) {
+		case A_STAR:
+		case BFS:
+			return new ExternalSolutionProcess<>(
+					(GPSCompactKeyProblem<R, S>) problem, searchStrategy,
+					maxSolutionDepth, spillDirectory, maxBufferedNodes, budget);
+		default:
+			throw new IllegalStateException(searchStrategy
+					+ " cannot keep its frontier on disk");
+		}
+	}
+
+	private SolutionProcess<R, S> buildBidirectionalSolutionProcess(
+			SearchBudget<R, S> budget) {
+		if (!(problem instanceof GPSBidirectionalProblem)) {
+			throw new IllegalStateException(
+					"Problem does not provide goal states and inverse rules");
+		}
+		if (workers > 1) {
+			throw new IllegalStateException(
+					"Bidirectional search runs on a single worker");
+		}
+		switch (searchStrategy) {
+		case BFS:
+		case A_STAR:
+			return new BidirectionalSolutionProcess<>(
+					(GPSBidirectionalProblem<R, S>) problem, searchStrategy,
+					maxSolutionDepth, budget);
+		default:
+			throw new IllegalStateException(searchStrategy
+					+ " cannot run bidirectionally");
+		}
 	}
 
 	protected Queue<GPSNode<R, S>> buildOpenNodes() {
+		switch (searchStrategy.getFrontier()) {
+		case FIFO:
+			return new ArrayDeque<>();
+		case LIFO:
+			return Collections.asLifoQueue(new ArrayDeque<>());
+		default:
+			return buildPriorityOpenNodes();
+		}
+	}
+
+	private Queue<GPSNode<R, S>> buildPriorityOpenNodes() {
+		if (bucketedOpenNodes) {
+			return new BucketQueue<>(getNodePriority(searchStrategy));
+		}
 		return new PriorityQueue<>(getNodeComparator(searchStrategy));
 	}
 
 	private Comparator<GPSNode<R, S>> getNodeComparator(SearchStrategy strategy) {
+		ToIntFunction<GPSNode<R, S>> priority = getNodePriority(strategy);
+		return (n1, n2) -> Integer.compare(priority.applyAsInt(n1),
+				priority.applyAsInt(n2));
+	}
+
+	// NOTE: lower values are polled first
+	private ToIntFunction<GPSNode<R, S>> getNodePriority(SearchStrategy strategy) {
 		switch (strategy) {
-		case BFS:
-			return (n1, n2) -> Integer.compare(n1.getGValue(), n2.getGValue());
-		case DFS:
-			// break through
-		case IDDFS:
-			return (n1, n2) -> Integer.compare(n2.getGValue(), n1.getGValue());
 		case GREEDY:
-			return (n1, n2) -> Integer.compare(n1.getHValue(), n2.getHValue());
+			return GPSNode::getHValue;
 		case A_STAR:
-			return (n1, n2) -> Integer.compare(n1.getFValue(), n2.getFValue());
+			return GPSNode::getFValue;
+		case WEIGHTED_A_STAR:
+			int scaledWeight = (int) Math.round(heuristicWeight * WEIGHT_SCALE);
+			return node -> node.getGValue() * WEIGHT_SCALE + scaledWeight
+					* node.getHValue();
 		default:
-			throw new IllegalStateException("Unknown search strategy");
+			throw new IllegalStateException(strategy + " has no node priority");
 		}
 	}
 }
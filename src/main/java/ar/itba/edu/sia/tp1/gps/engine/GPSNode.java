@@ -10,19 +10,44 @@ public class GPSNode<R extends GPSRule, S extends GPSState<R, S>> {
 	private final S state;
 	private final int gValue;
 	private final int hValue;
+	private final boolean hValueDeferred;
 
-	public GPSNode(GPSNode<R, S> parent, R rule, S state, int gValue, int hValue) {
+	private GPSNode(GPSNode<R, S> parent, R rule, S state, int gValue,
+			int hValue, boolean hValueDeferred) {
 		this.parent = parent;
 		this.rule = rule;
 		this.state = state;
 		this.gValue = gValue;
 		this.hValue = hValue;
+		this.hValueDeferred = hValueDeferred;
+	}
+
+	public GPSNode(GPSNode<R, S> parent, R rule, S state, int gValue, int hValue) {
+		this(parent, rule, state, gValue, hValue, false);
 	}
 
 	public GPSNode(R rule, S state, int gValue, int hValue) {
 		this(null, null, state, gValue, hValue);
 	}
 
+	/**
+	 * Builds a node whose h value is just an estimate, the actual one is to
+	 * be computed once the node is polled.
+	 */
+	static <R extends GPSRule, S extends GPSState<R, S>> GPSNode<R, S> withDeferredHValue(
+			GPSNode<R, S> parent, R rule, S state, int gValue,
+			int estimatedHValue) {
+		return new GPSNode<>(parent, rule, state, gValue, estimatedHValue,
+				true);
+	}
+
+	/**
+	 * Same node with its actual h value.
+	 */
+	GPSNode<R, S> withHValue(int hValue) {
+		return new GPSNode<>(parent, rule, state, gValue, hValue, false);
+	}
+
 	public R getRule() {
 		return rule;
 	}
@@ -47,6 +72,10 @@ public class GPSNode<R extends GPSRule, S extends GPSState<R, S>> {
 		return gValue + hValue;
 	}
 
+	public boolean isHValueDeferred() {
+		return hValueDeferred;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -2,6 +2,7 @@ package ar.itba.edu.sia.tp1.gps.engine;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.Optional;
 
 import org.apache.commons.collections4.IterableUtils;
 
@@ -13,6 +14,9 @@ public class GPSSolution<R extends GPSRule, S extends GPSState<R, S>> {
 	private final long explosionCount;
 	private final Integer cost;
 	private final long analyzedNodes;
+	private final boolean truncated;
+	private final GPSNode<R, S> bestNode;
+	private final SearchStatistics<R, S> statistics;
 
 	static <R extends GPSRule, S extends GPSState<R, S>> GPSSolution<R, S> of(
 			GPSNode<R, S> lastNode, long explosionCount, long analyzedNodes) {
@@ -24,12 +28,42 @@ public class GPSSolution<R extends GPSRule, S extends GPSState<R, S>> {
 		return of(null, explosionCount, analyzedNodes);
 	}
 
+	static <R extends GPSRule, S extends GPSState<R, S>> GPSSolution<R, S> truncated(
+			GPSNode<R, S> lastNode, GPSNode<R, S> bestNode,
+			long explosionCount, long analyzedNodes) {
+		return new GPSSolution<R, S>(lastNode, explosionCount, analyzedNodes,
+				true, lastNode != null ? lastNode : bestNode);
+	}
+
 	GPSSolution(GPSNode<R, S> lastNode, long explosionCount,
 			long analyzedNodes) {
+		this(lastNode, explosionCount, analyzedNodes, false, lastNode);
+	}
+
+	private GPSSolution(GPSNode<R, S> lastNode, long explosionCount,
+			long analyzedNodes, boolean truncated, GPSNode<R, S> bestNode) {
 		this.path = getSolutionPath(lastNode);
 		this.explosionCount = explosionCount;
 		this.cost = lastNode == null ? null : lastNode.getGValue();
 		this.analyzedNodes = analyzedNodes;
+		this.truncated = truncated;
+		this.bestNode = bestNode;
+		this.statistics = null;
+	}
+
+	private GPSSolution(GPSSolution<R, S> solution,
+			SearchStatistics<R, S> statistics) {
+		this.path = solution.path;
+		this.explosionCount = solution.explosionCount;
+		this.cost = solution.cost;
+		this.analyzedNodes = solution.analyzedNodes;
+		this.truncated = solution.truncated;
+		this.bestNode = solution.bestNode;
+		this.statistics = statistics;
+	}
+
+	GPSSolution<R, S> withStatistics(SearchStatistics<R, S> statistics) {
+		return new GPSSolution<>(this, statistics);
 	}
 
 	public boolean isSuccess() {
@@ -59,6 +93,31 @@ public class GPSSolution<R extends GPSRule, S extends GPSState<R, S>> {
 		return analyzedNodes;
 	}
 
+	/**
+	 * Whether the search ran out of budget (or was cancelled) before it was
+	 * over. A truncated solution may still be a success, but not necessarily
+	 * the one the search would have returned.
+	 */
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	/**
+	 * The goal node on success. Otherwise, if the search was truncated, the
+	 * node with the lowest h value it came across (if any).
+	 */
+	public Optional<GPSNode<R, S>> getBestNode() {
+		return Optional.ofNullable(bestNode);
+	}
+
+	/**
+	 * Present if the engine was asked to collect statistics. Only the
+	 * strategies that report to {@link SearchListener}s fill it in.
+	 */
+	public Optional<SearchStatistics<R, S>> getStatistics() {
+		return Optional.ofNullable(statistics);
+	}
+
 	private Iterable<GPSNode<R, S>> getSolutionPath(GPSNode<R, S> node) {
 		Deque<GPSNode<R, S>> solution = new ArrayDeque<>();
 		GPSNode<R, S> currNode = node;
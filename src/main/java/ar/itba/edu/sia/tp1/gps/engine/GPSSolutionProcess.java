@@ -1,58 +1,229 @@
 package ar.itba.edu.sia.tp1.gps.engine;
 
-import gnu.trove.map.hash.TObjectIntHashMap;
-
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import ar.itba.edu.sia.tp1.gps.GPSProblem;
 import ar.itba.edu.sia.tp1.gps.GPSRule;
 import ar.itba.edu.sia.tp1.gps.GPSState;
 
-class GPSSolutionProcess<R extends GPSRule, S extends GPSState<R, S>> {
+class GPSSolutionProcess<R extends GPSRule, S extends GPSState<R, S>>
+		implements
+			SolutionProcess<R, S> {
 	private Queue<GPSNode<R, S>> openNodes;
 	private final GPSProblem<R, S> problem;
+	private final SearchStrategy searchStrategy;
 	private final Supplier<Queue<GPSNode<R, S>>> queueBuilder;
 	private final int maxDepth;
+	private final boolean deferHValues;
+	private final SearchBudget<R, S> budget;
+	// IMPORTANT: null when nobody listens, so that the loop skips the calls
+	private final SearchListener<R, S> listener;
+	private CheckpointSchedule checkpoints = null;
+	private SearchCheckpoint<R, S> resumeFrom = null;
+	private Function<S, BestCosts<S>> bestCostsBuilder = BestCosts::forState;
 
-	private TObjectIntHashMap<S> bestCosts;
+	private BestCosts<S> bestCosts;
 	private int currDepth;
 	private long explosionCount = 0;
 	private long analyzedNodes = 0;
+	private long generatedNodes = 0;
+	private long lastCheckpointExplosionCount;
 
 	GPSSolutionProcess(GPSProblem<R, S> problem,
 			Supplier<Queue<GPSNode<R, S>>> queueBuilder,
 			SearchStrategy searchStrategy, int maxDepth) {
+		this(problem, queueBuilder, searchStrategy, maxDepth, false,
+				SearchBudget.unlimited(), null);
+	}
+
+	/**
+	 * @param deferHValues
+	 *            if true (and the strategy polls by priority), new nodes are
+	 *            queued with their parent's h value minus the cost of the
+	 *            rule and their actual h value is computed once polled. If
+	 *            it turns out to be different the node is queued again.
+	 * @param listener
+	 *            notified of every step of the search, can be null.
+	 */
+	GPSSolutionProcess(GPSProblem<R, S> problem,
+			Supplier<Queue<GPSNode<R, S>>> queueBuilder,
+			SearchStrategy searchStrategy, int maxDepth, boolean deferHValues,
+			SearchBudget<R, S> budget, SearchListener<R, S> listener) {
 		this.problem = problem;
+		this.searchStrategy = searchStrategy;
 		this.maxDepth = maxDepth;
+		this.deferHValues = deferHValues
+				&& searchStrategy.getFrontier() == Frontier.PRIORITY;
 		this.currDepth = startDepthFor(searchStrategy);
 		this.queueBuilder = queueBuilder;
+		this.budget = budget;
+		this.listener = listener;
+	}
+
+	/**
+	 * Writes a {@link SearchCheckpoint} whenever the schedule says so.
+	 */
+	GPSSolutionProcess<R, S> withCheckpoints(CheckpointSchedule checkpoints) {
+		this.checkpoints = checkpoints;
+		return this;
+	}
+
+	/**
+	 * Keeps at most the given number of best costs (see
+	 * {@link BoundedBestCosts}), so memory stays the same however long the
+	 * search runs. States must have compact keys.
+	 */
+	GPSSolutionProcess<R, S> withTranspositionTable(int capacity) {
+		this.bestCostsBuilder = state -> new BoundedBestCosts<>(capacity);
+		return this;
 	}
 
-	GPSSolution<R, S> solve() {
+	/**
+	 * Picks the search up where the checkpoint left it instead of starting
+	 * from the initial state.
+	 */
+	GPSSolutionProcess<R, S> resumingFrom(SearchCheckpoint<R, S> checkpoint) {
+		if (checkpoint.getSearchStrategy() != searchStrategy) {
+			throw new IllegalStateException("Checkpoint was written by "
+					+ checkpoint.getSearchStrategy() + ", not "
+					+ searchStrategy);
+		}
+		this.resumeFrom = checkpoint;
+		this.currDepth = checkpoint.getDepthLimit();
+		this.explosionCount = checkpoint.getExplosionCount();
+		this.analyzedNodes = checkpoint.getAnalyzedNodes();
+		this.generatedNodes = checkpoint.getGeneratedNodes();
+		return this;
+	}
+
+	@Override
+	public GPSSolution<R, S> solve() {
+		// IMPORTANT: the count a resumed search starts from
+		lastCheckpointExplosionCount = explosionCount;
 		while (currDepth <= maxDepth) {
-			initOpenNodes();
+			IterationEvent iterationEvent = new IterationEvent();
+			iterationEvent.begin();
+			long iterationStartExplosions = explosionCount;
+			if (resumeFrom != null) {
+				restoreOpenNodes(resumeFrom);
+				resumeFrom = null;
+			} else {
+				initOpenNodes();
+			}
 			while (!openNodes.isEmpty()) {
+				if (budget.isExhausted(explosionCount, generatedNodes,
+						openNodes.size() + bestCosts.size())) {
+					endIteration(iterationEvent, iterationStartExplosions);
+					return budget.truncated(explosionCount, analyzedNodes);
+				}
 				GPSNode<R, S> currentNode = openNodes.poll();
-				// System.out
-				// .println("Analyzing node, g: " + currentNode.getGValue()
-				// + " h:" + currentNode.getHValue());
+				if (currentNode.isHValueDeferred()) {
+					if (!isBetterThanCurrentBest(currentNode)) {
+						if (listener != null) {
+							listener.onNodePruned(currentNode.getState(),
+									currentNode.getGValue());
+						}
+						continue;
+					}
+					GPSNode<R, S> evaluatedNode = currentNode
+							.withHValue(getHValue(currentNode.getState()));
+					if (evaluatedNode.getHValue() != currentNode.getHValue()) {
+						// IMPORTANT: its priority changed, back to the queue
+						openNodes.add(evaluatedNode);
+						continue;
+					}
+					currentNode = evaluatedNode;
+				}
 				analyzedNodes++;
+				if ((analyzedNodes & (FrontierSampleEvent.SAMPLE_INTERVAL - 1)) == 0) {
+					sampleFrontier();
+				}
+				budget.observe(currentNode);
 				if (problem.isGoal(currentNode.getState())) {
+					if (listener != null) {
+						listener.onGoalFound(currentNode);
+					}
+					endIteration(iterationEvent, iterationStartExplosions);
 					return GPSSolution.of(currentNode, explosionCount, analyzedNodes);
 				}
 				explode(currentNode);
+				if (checkpoints != null
+						&& checkpoints.isDue(explosionCount,
+								lastCheckpointExplosionCount)) {
+					writeCheckpoint();
+					lastCheckpointExplosionCount = explosionCount;
+				}
 			}
+			endIteration(iterationEvent, iterationStartExplosions);
 			currDepth++;
 		}
 		return GPSSolution.failure(explosionCount, analyzedNodes);
 	}
 
+	private void writeCheckpoint() {
+		SearchCheckpoint<R, S> checkpoint = new SearchCheckpoint<>(
+				searchStrategy, currDepth, explosionCount, analyzedNodes,
+				generatedNodes, new ArrayList<>(openNodes), bestCosts);
+		try {
+			checkpoint.write(checkpoints.getFile(), problem.getRules());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void restoreOpenNodes(SearchCheckpoint<R, S> checkpoint) {
+		// IMPORTANT: the same table a new search would get, bounded or not
+		bestCosts = bestCostsBuilder.apply(problem.getInitialState());
+		checkpoint.forEachBestCost(bestCosts::updateBestCost);
+		openNodes = queueBuilder.get();
+
+		List<GPSNode<R, S>> nodes = checkpoint.getOpenNodes();
+		if (searchStrategy.getFrontier() == Frontier.LIFO) {
+			// IMPORTANT: the top of the stack was iterated first
+			for (int i = nodes.size() - 1; i >= 0; i--) {
+				openNodes.add(nodes.get(i));
+			}
+		} else {
+			openNodes.addAll(nodes);
+		}
+	}
+
+	private void endIteration(IterationEvent event, long startExplosions) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.depthLimit = currDepth;
+			event.explosions = explosionCount - startExplosions;
+			event.commit();
+		}
+	}
+
+	private void sampleFrontier() {
+		FrontierSampleEvent event = new FrontierSampleEvent();
+		if (event.isEnabled()) {
+			event.openNodes = openNodes.size();
+			event.closedStates = bestCosts.size();
+			event.analyzedNodes = analyzedNodes;
+			event.commit();
+		}
+	}
+
 	protected void explode(GPSNode<R, S> node) {
 		if (!isBetterThanCurrentBest(node)) {
+			if (listener != null) {
+				listener.onNodePruned(node.getState(), node.getGValue());
+			}
 			return;
 		}
+		if (listener != null) {
+			listener.onNodeExpanded(node, bestCosts.contains(node.getState()));
+		}
 		updateBestCost(node);
 		explosionCount++;
 
@@ -63,13 +234,30 @@ class GPSSolutionProcess<R extends GPSRule, S extends GPSState<R, S>> {
 				S newState = newStateOpt.get();
 				int newGValue = node.getGValue() + rule.getCost();
 
-				if (newGValue <= currDepth
-						&& isBetterThanCurrentBest(newState, newGValue)) {
-					int newHValue = getHValue(newState);
-
-					GPSNode<R, S> newNode = new GPSNode<>(node, rule, newState,
-							newGValue, newHValue);
+				if (newGValue > currDepth) {
+					continue;
+				}
+				if (!isBetterThanCurrentBest(newState, newGValue)) {
+					if (listener != null) {
+						listener.onNodePruned(newState, newGValue);
+					}
+				} else {
+					GPSNode<R, S> newNode;
+					if (deferHValues) {
+						newNode = GPSNode.withDeferredHValue(node, rule,
+								newState, newGValue,
+								node.getHValue() - rule.getCost());
+					} else {
+						int newHValue = problem.getHValue(node.getState(),
+								node.getHValue(), rule, newState);
+						newNode = new GPSNode<>(node, rule, newState,
+								newGValue, newHValue);
+					}
 					openNodes.add(newNode);
+					generatedNodes++;
+					if (listener != null) {
+						listener.onNodeGenerated(newNode, openNodes.size());
+					}
 				}
 			}
 		}
@@ -89,10 +277,16 @@ class GPSSolutionProcess<R extends GPSRule, S extends GPSState<R, S>> {
 		S initialState = problem.getInitialState();
 		int initialHValue = getHValue(initialState);
 
-		bestCosts = new TObjectIntHashMap<S>();
+		bestCosts = bestCostsBuilder.apply(initialState);
 
 		this.openNodes = queueBuilder.get();
-		openNodes.add(new GPSNode<>(null, initialState, 0, initialHValue));
+		GPSNode<R, S> root = new GPSNode<>(null, initialState, 0,
+				initialHValue);
+		openNodes.add(root);
+		if (listener != null) {
+			listener.onIterationStart(currDepth);
+			listener.onNodeGenerated(root, openNodes.size());
+		}
 	}
 
 	private int getHValue(S state) {
@@ -108,12 +302,12 @@ class GPSSolutionProcess<R extends GPSRule, S extends GPSState<R, S>> {
 	// IMPORTANT: this is used to check if a node was visited (even in
 	// uninformed algorithms like DFS)
 	private boolean isBetterThanCurrentBest(S state, int cost) {
-		return !bestCosts.containsKey(state) || cost < bestCosts.get(state);
+		return bestCosts.isBetterThanCurrentBest(state, cost);
 	}
 
 	// IMPORTANT: this is used to check if a node was visited (even in
 	// uninformed algorithms like DFS)
 	private void updateBestCost(GPSNode<R, S> node) {
-		bestCosts.put(node.getState(), node.getGValue());
+		bestCosts.updateBestCost(node.getState(), node.getGValue());
 	}
 }
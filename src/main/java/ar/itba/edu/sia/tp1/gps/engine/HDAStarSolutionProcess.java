@@ -0,0 +1,235 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import ar.itba.edu.sia.tp1.gps.GPSProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Hash distributed A* (HDA*). Every state is owned by exactly one worker,
+ * chosen by the hash of the state. Each worker keeps its own open list and
+ * its own partition of the best known costs, and generated nodes are shipped
+ * to their owner through a lock-free mailbox.
+ *
+ * A goal that is popped becomes the incumbent solution if it is cheaper than
+ * the current one, but the search goes on until no worker has a node with f
+ * lower than the incumbent's cost and no node is in flight, so the solution
+ * is as good as the one a sequential A* would return.
+ */
+class HDAStarSolutionProcess<R extends GPSRule, S extends GPSState<R, S>>
+		implements
+			SolutionProcess<R, S> {
+	private final GPSProblem<R, S> problem;
+	private final Supplier<Queue<GPSNode<R, S>>> queueBuilder;
+	private final int maxDepth;
+	private final List<Worker> workers;
+	private final SearchBudget<R, S> budget;
+
+	private final AtomicReference<GPSNode<R, S>> bestGoal = new AtomicReference<>();
+	// IMPORTANT: nodes in flight plus busy workers, the search is over once
+	// it reaches 0
+	private final AtomicLong pendingWork;
+	private final AtomicBoolean truncated = new AtomicBoolean(false);
+	// IMPORTANT: set when a worker fails, the rest would otherwise wait
+	// forever for the work it still accounts for
+	private final AtomicBoolean aborted = new AtomicBoolean(false);
+
+	private final LongAdder explosionCount = new LongAdder();
+	private final LongAdder analyzedNodes = new LongAdder();
+	private final LongAdder generatedNodes = new LongAdder();
+
+	HDAStarSolutionProcess(GPSProblem<R, S> problem,
+			Supplier<Queue<GPSNode<R, S>>> queueBuilder, int maxDepth,
+			int workerCount, SearchBudget<R, S> budget) {
+		this.problem = problem;
+		this.queueBuilder = queueBuilder;
+		this.maxDepth = maxDepth;
+		this.budget = budget;
+		this.workers = new ArrayList<>(workerCount);
+		for (int i = 0; i < workerCount; i++) {
+			workers.add(new Worker());
+		}
+		this.pendingWork = new AtomicLong(workerCount);
+	}
+
+	@Override
+	public GPSSolution<R, S> solve() {
+		S initialState = problem.getInitialState();
+		send(new GPSNode<>(null, initialState, 0,
+				problem.getHValue(initialState)));
+
+		ExecutorService executor = Executors.newFixedThreadPool(workers
+				.size());
+		try {
+			List<Future<?>> results = new ArrayList<>(workers.size());
+			for (Worker worker : workers) {
+				results.add(executor.submit(worker::run));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			aborted.set(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while solving", e);
+		} catch (ExecutionException e) {
+			aborted.set(true);
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		if (truncated.get()) {
+			return budget.truncated(bestGoal.get(), explosionCount.sum(),
+					analyzedNodes.sum());
+		}
+		return GPSSolution.of(bestGoal.get(), explosionCount.sum(),
+				analyzedNodes.sum());
+	}
+
+	private Worker ownerOf(S state) {
+		int hash = state.hashCode();
+		hash ^= (hash >>> 16);
+		return workers.get(Math.floorMod(hash, workers.size()));
+	}
+
+	private void send(GPSNode<R, S> node) {
+		pendingWork.incrementAndGet();
+		ownerOf(node.getState()).mailbox.add(node);
+	}
+
+	private int bestGoalCost() {
+		GPSNode<R, S> goal = bestGoal.get();
+		return goal == null ? Integer.MAX_VALUE : goal.getGValue();
+	}
+
+	private void offerGoal(GPSNode<R, S> node) {
+		GPSNode<R, S> current;
+		do {
+			current = bestGoal.get();
+			if (current != null && current.getGValue() <= node.getGValue()) {
+				return;
+			}
+		} while (!bestGoal.compareAndSet(current, node));
+	}
+
+	private class Worker {
+		private final Queue<GPSNode<R, S>> mailbox = new ConcurrentLinkedQueue<>();
+		private final Queue<GPSNode<R, S>> openNodes = queueBuilder.get();
+		private final BestCosts<S> bestCosts = BestCosts.forState(problem
+				.getInitialState());
+
+		private boolean busy = true;
+
+		private void run() {
+			try {
+				search();
+			} catch (RuntimeException | Error e) {
+				aborted.set(true);
+				throw e;
+			}
+		}
+
+		private void search() {
+			while (pendingWork.get() > 0 && !truncated.get()
+					&& !aborted.get()) {
+				if (budget.isExhausted(explosionCount.sum(),
+						generatedNodes.sum())) {
+					truncated.set(true);
+					return;
+				}
+				receive();
+
+				GPSNode<R, S> node = openNodes.poll();
+				if (node == null || node.getFValue() >= bestGoalCost()) {
+					// IMPORTANT: nodes are polled by f, so nothing left in
+					// the open list can improve on the incumbent
+					openNodes.clear();
+					if (busy) {
+						busy = false;
+						pendingWork.decrementAndGet();
+					}
+					Thread.yield();
+					continue;
+				}
+
+				analyzedNodes.increment();
+				budget.observe(node);
+				if (problem.isGoal(node.getState())) {
+					offerGoal(node);
+					continue;
+				}
+				explode(node);
+			}
+		}
+
+		private void receive() {
+			GPSNode<R, S> node;
+			while ((node = mailbox.poll()) != null) {
+				if (!busy) {
+					busy = true;
+					pendingWork.incrementAndGet();
+				}
+				if (isBetterThanCurrentBest(node.getState(), node.getGValue())) {
+					openNodes.add(node);
+				}
+				pendingWork.decrementAndGet();
+			}
+		}
+
+		private void explode(GPSNode<R, S> node) {
+			if (!isBetterThanCurrentBest(node.getState(), node.getGValue())) {
+				return;
+			}
+			bestCosts.updateBestCost(node.getState(), node.getGValue());
+			explosionCount.increment();
+
+			for (R rule : problem.getRules()) {
+				Optional<S> newStateOpt = node.getState().apply(rule);
+
+				if (newStateOpt.isPresent()) {
+					S newState = newStateOpt.get();
+					int newGValue = node.getGValue() + rule.getCost();
+					if (newGValue > maxDepth) {
+						continue;
+					}
+
+					Worker owner = ownerOf(newState);
+					if (owner == this
+							&& !isBetterThanCurrentBest(newState, newGValue)) {
+						continue;
+					}
+
+					GPSNode<R, S> newNode = new GPSNode<>(node, rule,
+							newState, newGValue, problem.getHValue(
+									node.getState(), node.getHValue(), rule,
+									newState));
+					generatedNodes.increment();
+					if (owner == this) {
+						openNodes.add(newNode);
+					} else {
+						send(newNode);
+					}
+				}
+			}
+		}
+
+		private boolean isBetterThanCurrentBest(S state, int cost) {
+			return bestCosts.isBetterThanCurrentBest(state, cost);
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+
+import ar.itba.edu.sia.tp1.gps.GPSProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Iterative deepening A*: repeated depth-first probes bounded by f = g + h,
+ * where each iteration's threshold is the minimum f that was pruned in the
+ * previous one.
+ *
+ * Only the current path is kept in memory (no open list and no table of
+ * best costs), so memory is linear in the solution depth. Cycles are avoided
+ * by not revisiting states that are already on the current path.
+ *
+ * Optionally, a fixed-size transposition table prunes states reached again
+ * at a higher cost than before, which are common in problems with many
+ * transpositions. Memory stays bounded by the table's capacity.
+ */
+class IDAStarSolutionProcess<R extends GPSRule, S extends GPSState<R, S>>
+		implements
+			SolutionProcess<R, S> {
+	private static final int NOTHING_PRUNED = Integer.MAX_VALUE;
+
+	private final GPSProblem<R, S> problem;
+	private final int maxDepth;
+	private final SearchBudget<R, S> budget;
+	// IMPORTANT: null unless a transposition table was asked for
+	private BestCosts<S> transpositions = null;
+
+	private GPSNode<R, S> goalNode;
+	private boolean truncated = false;
+	private long explosionCount = 0;
+	private long analyzedNodes = 0;
+	private long generatedNodes = 0;
+
+	IDAStarSolutionProcess(GPSProblem<R, S> problem, int maxDepth,
+			SearchBudget<R, S> budget) {
+		this.problem = problem;
+		this.maxDepth = maxDepth;
+		this.budget = budget;
+	}
+
+	IDAStarSolutionProcess<R, S> withTranspositionTable(int capacity) {
+		this.transpositions = new BoundedBestCosts<>(capacity);
+		return this;
+	}
+
+	@Override
+	public GPSSolution<R, S> solve() {
+		S initialState = problem.getInitialState();
+		GPSNode<R, S> root = new GPSNode<>(null, initialState, 0,
+				problem.getHValue(initialState));
+
+		analyzedNodes++;
+		budget.observe(root);
+		if (problem.isGoal(initialState)) {
+			return GPSSolution.of(root, explosionCount, analyzedNodes);
+		}
+
+		int threshold = root.getFValue();
+		while (threshold != NOTHING_PRUNED) {
+			threshold = probe(root, threshold);
+			if (goalNode != null) {
+				return GPSSolution.of(goalNode, explosionCount, analyzedNodes);
+			}
+			if (truncated) {
+				return budget.truncated(explosionCount, analyzedNodes);
+			}
+		}
+		return GPSSolution.failure(explosionCount, analyzedNodes);
+	}
+
+	/**
+	 * Depth-first probe from the root that does not go past the given f
+	 * threshold. Sets {@link #goalNode} if a goal is reached, or
+	 * {@link #truncated} if the budget runs out first.
+	 *
+	 * @return the minimum f value that exceeded the threshold, or
+	 *         {@link #NOTHING_PRUNED} if the whole space within maxDepth was
+	 *         covered.
+	 */
+	private int probe(GPSNode<R, S> root, int threshold) {
+		int minPrunedFValue = NOTHING_PRUNED;
+
+		Deque<Frame> path = new ArrayDeque<>();
+		Set<S> pathStates = new HashSet<>();
+		push(path, pathStates, root);
+
+		while (!path.isEmpty()) {
+			if (budget.isExhausted(explosionCount, generatedNodes)) {
+				truncated = true;
+				break;
+			}
+			Frame frame = path.peek();
+			if (!frame.pendingRules.hasNext()) {
+				path.pop();
+				pathStates.remove(frame.node.getState());
+				continue;
+			}
+
+			R rule = frame.pendingRules.next();
+			Optional<S> newStateOpt = frame.node.getState().apply(rule);
+			if (!newStateOpt.isPresent()) {
+				continue;
+			}
+
+			S newState = newStateOpt.get();
+			int newGValue = frame.node.getGValue() + rule.getCost();
+			if (newGValue > maxDepth || pathStates.contains(newState)
+					|| isTransposition(newState, newGValue)) {
+				continue;
+			}
+
+			int newHValue = problem.getHValue(frame.node.getState(),
+					frame.node.getHValue(), rule, newState);
+			if (newGValue + newHValue > threshold) {
+				minPrunedFValue = Math.min(minPrunedFValue, newGValue
+						+ newHValue);
+				continue;
+			}
+
+			GPSNode<R, S> newNode = new GPSNode<>(frame.node, rule, newState,
+					newGValue, newHValue);
+			generatedNodes++;
+			analyzedNodes++;
+			budget.observe(newNode);
+			if (problem.isGoal(newState)) {
+				goalNode = newNode;
+				break;
+			}
+			push(path, pathStates, newNode);
+		}
+		return minPrunedFValue;
+	}
+
+	/**
+	 * A state that was already reached at a lower cost has been (or is being)
+	 * probed with a larger remaining threshold, so nothing new can be found
+	 * under it. The same cost is not enough, since the entry may come from a
+	 * previous iteration.
+	 */
+	private boolean isTransposition(S state, int gValue) {
+		return transpositions != null
+				&& !transpositions.isBetterThanCurrentBest(state, gValue - 1);
+	}
+
+	private void push(Deque<Frame> path, Set<S> pathStates, GPSNode<R, S> node) {
+		explosionCount++;
+		path.push(new Frame(node));
+		pathStates.add(node.getState());
+		if (transpositions != null) {
+			transpositions.updateBestCost(node.getState(), node.getGValue());
+		}
+	}
+
+	private class Frame {
+		private final GPSNode<R, S> node;
+		private final Iterator<R> pendingRules;
+
+		private Frame(GPSNode<R, S> node) {
+			this.node = node;
+			this.pendingRules = problem.getRules().iterator();
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Receives every solution an anytime search (ARA_STAR) finds, each one
+ * cheaper than the previous.
+ */
+@FunctionalInterface
+public interface ImprovedSolutionListener<R extends GPSRule, S extends GPSState<R, S>> {
+	/**
+	 * @param solution
+	 *            The solution found so far.
+	 * @param suboptimalityBound
+	 *            How many times the optimal cost the solution's cost can be,
+	 *            at most (1 if the solution is optimal).
+	 */
+	void onImprovedSolution(GPSSolution<R, S> solution,
+			double suboptimalityBound);
+}
@@ -0,0 +1,211 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import ar.itba.edu.sia.tp1.gps.GPSProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * DFS and IDDFS over a single state that is changed in place (see
+ * {@link GPSState#applyInPlace(GPSRule)}) and reverted on the way back, so
+ * that no state nor node is built per expansion. The current path is kept
+ * as arrays of rule indexes, one level per explored node, and nodes are
+ * only built for the solution.
+ *
+ * Explores, prunes and counts exactly as {@link GPSSolutionProcess} does
+ * with a LIFO frontier: the children of a node are the rules that pass the
+ * best costs when the node is exploded, tried last to first. Visited states
+ * are tracked by compact key. Search listeners are not notified and the
+ * best node of a truncated run is not tracked.
+ */
+class InPlaceSolutionProcess<R extends GPSRule, S extends GPSState<R, S>>
+		implements
+			SolutionProcess<R, S> {
+	private static final int INITIAL_LEVELS = 64;
+
+	private final GPSProblem<R, S> problem;
+	private final List<R> rules;
+	private final SearchStrategy searchStrategy;
+	private final int maxDepth;
+	private final Supplier<BestCosts<S>> bestCostsBuilder;
+	private final SearchBudget<R, S> budget;
+
+	private S state;
+	private BestCosts<S> bestCosts;
+	// IMPORTANT: level i is the i-th node of the current path, the root
+	// being 0. The rule indexes of its children still to try are
+	// children[i][0..nextChild[i]).
+	private int[][] children;
+	private int[] nextChild;
+	private int[] gValues;
+	// rule index that led to each level (unused for the root)
+	private int[] enteredBy;
+	private int levels;
+
+	private int currDepth;
+	private long explosionCount = 0;
+	private long analyzedNodes = 0;
+	private long generatedNodes = 0;
+
+	InPlaceSolutionProcess(GPSProblem<R, S> problem,
+			SearchStrategy searchStrategy, int maxDepth,
+			Supplier<BestCosts<S>> bestCostsBuilder, SearchBudget<R, S> budget) {
+		this.problem = problem;
+		this.rules = problem.getRules();
+		this.searchStrategy = searchStrategy;
+		this.maxDepth = maxDepth;
+		this.bestCostsBuilder = bestCostsBuilder;
+		this.budget = budget;
+	}
+
+	@Override
+	public GPSSolution<R, S> solve() {
+		state = problem.getInitialState().mutableCopy();
+		allocateLevels(INITIAL_LEVELS);
+
+		currDepth = searchStrategy == SearchStrategy.IDDFS ? 0 : maxDepth;
+		for (; currDepth <= maxDepth; currDepth++) {
+			IterationEvent iterationEvent = new IterationEvent();
+			iterationEvent.begin();
+			long iterationStartExplosions = explosionCount;
+			bestCosts = bestCostsBuilder.get();
+			GPSSolution<R, S> solution = iterate();
+			endIteration(iterationEvent, iterationStartExplosions);
+			if (solution != null) {
+				return solution;
+			}
+		}
+		return GPSSolution.failure(explosionCount, analyzedNodes);
+	}
+
+	/**
+	 * A whole depth first search within the current depth limit, leaving
+	 * the state as it found it unless it returns early.
+	 *
+	 * @return the solution, or null if there is none within the limit.
+	 */
+	private GPSSolution<R, S> iterate() {
+		levels = 0;
+		if (budget.isExhausted(explosionCount, generatedNodes)) {
+			return budget.truncated(explosionCount, analyzedNodes);
+		}
+		if (visit(0)) {
+			return GPSSolution.of(buildPath(), explosionCount, analyzedNodes);
+		}
+
+		while (levels > 0) {
+			int level = levels - 1;
+			if (nextChild[level] == 0) {
+				levels--;
+				if (level > 0) {
+					state.undo(rules.get(enteredBy[level]));
+				}
+				continue;
+			}
+			if (budget.isExhausted(explosionCount, generatedNodes)) {
+				return budget.truncated(explosionCount, analyzedNodes);
+			}
+
+			int ruleIndex = children[level][--nextChild[level]];
+			R rule = rules.get(ruleIndex);
+			state.applyInPlace(rule);
+			if (levels == gValues.length) {
+				allocateLevels(levels * 2);
+			}
+			enteredBy[levels] = ruleIndex;
+			if (visit(gValues[level] + rule.getCost())) {
+				return GPSSolution.of(buildPath(), explosionCount,
+						analyzedNodes);
+			}
+			if (levels == level + 1) {
+				// IMPORTANT: pruned, nothing was pushed for it
+				state.undo(rule);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Analyzes the current state as the node at the next level and, unless
+	 * it is pruned, explodes it into that level.
+	 *
+	 * @return true if the state is a goal.
+	 */
+	private boolean visit(int gValue) {
+		analyzedNodes++;
+		if (problem.isGoal(state)) {
+			gValues[levels] = gValue;
+			levels++;
+			return true;
+		}
+		if (!bestCosts.isBetterThanCurrentBest(state, gValue)) {
+			return false;
+		}
+		bestCosts.updateBestCost(state, gValue);
+		explosionCount++;
+
+		int level = levels++;
+		gValues[level] = gValue;
+		int count = 0;
+		for (int i = 0; i < rules.size(); i++) {
+			R rule = rules.get(i);
+			int newGValue = gValue + rule.getCost();
+			if (newGValue > currDepth || !state.applyInPlace(rule)) {
+				continue;
+			}
+			if (bestCosts.isBetterThanCurrentBest(state, newGValue)) {
+				children[level][count++] = i;
+				generatedNodes++;
+			}
+			state.undo(rule);
+		}
+		nextChild[level] = count;
+		return false;
+	}
+
+	/**
+	 * Replays the current path from the initial state, building a node for
+	 * every level.
+	 */
+	private GPSNode<R, S> buildPath() {
+		S pathState = problem.getInitialState();
+		GPSNode<R, S> node = new GPSNode<>(null, pathState, 0,
+				problem.getHValue(pathState));
+		for (int level = 1; level < levels; level++) {
+			R rule = rules.get(enteredBy[level]);
+			pathState = pathState.apply(rule).orElseThrow(
+					IllegalStateException::new);
+			node = new GPSNode<>(node, rule, pathState, gValues[level],
+					problem.getHValue(pathState));
+		}
+		return node;
+	}
+
+	private void allocateLevels(int size) {
+		int oldSize = gValues == null ? 0 : gValues.length;
+		children = children == null ? new int[size][] : Arrays.copyOf(
+				children, size);
+		for (int level = oldSize; level < size; level++) {
+			children[level] = new int[rules.size()];
+		}
+		nextChild = grow(nextChild, size);
+		gValues = grow(gValues, size);
+		enteredBy = grow(enteredBy, size);
+	}
+
+	private static int[] grow(int[] array, int size) {
+		return array == null ? new int[size] : Arrays.copyOf(array, size);
+	}
+
+	private void endIteration(IterationEvent event, long startExplosions) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.depthLimit = currDepth;
+			event.explosions = explosionCount - startExplosions;
+			event.commit();
+		}
+	}
+}
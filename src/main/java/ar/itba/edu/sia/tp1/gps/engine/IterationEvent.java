@@ -0,0 +1,26 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event that spans one iteration of an iterative deepening
+ * search (the only one for the strategies that are not iterative).
+ */
+@Name("ar.itba.edu.sia.tp1.gps.Iteration")
+@Label("GPS Iteration")
+@Category("GPS")
+@Description("A pass of the search from the initial state, up to a depth limit")
+@StackTrace(false)
+class IterationEvent extends Event {
+	@Label("Depth Limit")
+	int depthLimit;
+
+	@Label("Explosions")
+	@Description("Nodes exploded during this iteration")
+	long explosions;
+}
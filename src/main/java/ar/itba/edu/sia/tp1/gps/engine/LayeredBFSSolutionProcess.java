@@ -0,0 +1,142 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import ar.itba.edu.sia.tp1.gps.GPSProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Level synchronous BFS: a whole depth layer is goal-tested and expanded in
+ * parallel (fork/join) before moving on to the next one. Children already
+ * seen in a previous layer are dropped while expanding, and the ones reached
+ * from more than one parent are then claimed, in layer order, by the first
+ * of them, so every state shows up in at most one layer.
+ *
+ * Layers keep the order a sequential expansion would give them, so the goal
+ * that is returned (the first one in its layer) does not depend on the
+ * number of workers.
+ */
+class LayeredBFSSolutionProcess<R extends GPSRule, S extends GPSState<R, S>>
+		implements
+			SolutionProcess<R, S> {
+	private final GPSProblem<R, S> problem;
+	private final int maxDepth;
+	private final int workers;
+	private final SearchBudget<R, S> budget;
+
+	// IMPORTANT: only changed between layers, expansions just read it
+	private final Set<S> visited = new HashSet<>();
+	private long explosionCount = 0;
+	private long analyzedNodes = 0;
+	private long generatedNodes = 0;
+
+	/**
+	 * The budget is only checked between layers.
+	 */
+	LayeredBFSSolutionProcess(GPSProblem<R, S> problem, int maxDepth,
+			int workers, SearchBudget<R, S> budget) {
+		this.problem = problem;
+		this.maxDepth = maxDepth;
+		this.workers = workers;
+		this.budget = budget;
+	}
+
+	@Override
+	public GPSSolution<R, S> solve() {
+		S initialState = problem.getInitialState();
+		visited.add(initialState);
+		List<GPSNode<R, S>> layer = Collections.singletonList(new GPSNode<>(
+				null, initialState, 0, problem.getHValue(initialState)));
+
+		ForkJoinPool pool = new ForkJoinPool(workers);
+		try {
+			for (int depth = 0; !layer.isEmpty(); depth++) {
+				Optional<GPSNode<R, S>> goal = findGoal(pool, layer);
+				analyzedNodes += layer.size();
+				if (goal.isPresent()) {
+					return GPSSolution.of(goal.get(), explosionCount,
+							analyzedNodes);
+				}
+				if (depth >= maxDepth) {
+					break;
+				}
+				for (GPSNode<R, S> node : layer) {
+					budget.observe(node);
+				}
+				// NOTE: the states of the layer are already visited
+				if (budget.isExhausted(explosionCount, generatedNodes,
+						visited.size())) {
+					return budget.truncated(explosionCount, analyzedNodes);
+				}
+
+				explosionCount += layer.size();
+				layer = explode(pool, layer);
+				generatedNodes += layer.size();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		return GPSSolution.failure(explosionCount, analyzedNodes);
+	}
+
+	private Optional<GPSNode<R, S>> findGoal(ForkJoinPool pool,
+			List<GPSNode<R, S>> layer) {
+		return inPool(pool, () -> layer.parallelStream()
+				.filter(node -> problem.isGoal(node.getState())).findFirst());
+	}
+
+	private List<GPSNode<R, S>> explode(ForkJoinPool pool,
+			List<GPSNode<R, S>> layer) {
+		List<GPSNode<R, S>> newNodes = inPool(pool, () -> layer
+				.parallelStream().flatMap(this::explode)
+				.collect(Collectors.toList()));
+
+		List<GPSNode<R, S>> newLayer = new ArrayList<>(newNodes.size());
+		for (GPSNode<R, S> node : newNodes) {
+			if (visited.add(node.getState())) {
+				newLayer.add(node);
+			}
+		}
+		return newLayer;
+	}
+
+	private Stream<GPSNode<R, S>> explode(GPSNode<R, S> node) {
+		Stream.Builder<GPSNode<R, S>> newNodes = Stream.builder();
+		for (R rule : problem.getRules()) {
+			Optional<S> newStateOpt = node.getState().apply(rule);
+
+			if (newStateOpt.isPresent()) {
+				S newState = newStateOpt.get();
+				int newGValue = node.getGValue() + rule.getCost();
+
+				if (newGValue <= maxDepth && !visited.contains(newState)) {
+					newNodes.add(new GPSNode<>(node, rule, newState,
+							newGValue, problem.getHValue(newState)));
+				}
+			}
+		}
+		return newNodes.build();
+	}
+
+	private static <T> T inPool(ForkJoinPool pool, Callable<T> task) {
+		try {
+			return pool.submit(task).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while solving", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+}
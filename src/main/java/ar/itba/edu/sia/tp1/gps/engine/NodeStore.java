@@ -0,0 +1,161 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.util.Arrays;
+import java.util.List;
+
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Search tree kept in parallel primitive arrays instead of {@link GPSNode}s:
+ * each node is an index with its parent's index, the index of the rule that
+ * led to it, its g and h values and its state's compact key.
+ *
+ * States are not kept, except for checkpoints: one in every
+ * {@link #CHECKPOINT_INTERVAL} nodes in the order they are added, and any
+ * node that would otherwise be more than {@link #MAX_REPLAY_LENGTH} rules
+ * away from one. Any other state is rebuilt by replaying the rules from its
+ * closest checkpoint ancestor.
+ *
+ * Checkpoints are not picked by depth because A* keeps most of its frontier
+ * in its deepest levels, which would then be either all or none checkpoints.
+ */
+class NodeStore<R extends GPSRule, S extends GPSState<R, S>> {
+	static final int NO_PARENT = -1;
+	private static final int CHECKPOINT_INTERVAL = 8;
+	// IMPORTANT: ancestors are checkpoints or not regardless of each other,
+	// so a branch this long without one is very unlikely
+	private static final int MAX_REPLAY_LENGTH = 64;
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final List<R> rules;
+
+	private int[] parents = new int[INITIAL_CAPACITY];
+	private int[] ruleIndexes = new int[INITIAL_CAPACITY];
+	private int[] gValues = new int[INITIAL_CAPACITY];
+	private int[] hValues = new int[INITIAL_CAPACITY];
+	private long[] keys = new long[INITIAL_CAPACITY];
+	// rules to replay from the closest checkpoint, 0 for checkpoints
+	private byte[] replayLengths = new byte[INITIAL_CAPACITY];
+	// null for anything but checkpoints
+	@SuppressWarnings("unchecked")
+	private S[] states = (S[]) new GPSState[INITIAL_CAPACITY];
+	private int size = 0;
+
+	/**
+	 * @param rules
+	 *            the rules nodes refer to by index, in a fixed order.
+	 */
+	NodeStore(List<R> rules) {
+		this.rules = rules;
+	}
+
+	int addRoot(S state, int hValue) {
+		return add(NO_PARENT, -1, 0, hValue, state.getCompactKey(), state);
+	}
+
+	/**
+	 * @param key
+	 *            the compact key of the state, which the caller already has.
+	 * @param state
+	 *            the node's state, only kept if the node is a checkpoint.
+	 * @return the index of the new node.
+	 */
+	int add(int parent, int ruleIndex, int gValue, int hValue, long key,
+			S state) {
+		if (size == parents.length) {
+			grow();
+		}
+		int node = size++;
+		parents[node] = parent;
+		ruleIndexes[node] = ruleIndex;
+		gValues[node] = gValue;
+		hValues[node] = hValue;
+		keys[node] = key;
+
+		int replayLength = parent == NO_PARENT ? 0
+				: replayLengths[parent] + 1;
+		if (node % CHECKPOINT_INTERVAL == 0
+				|| replayLength > MAX_REPLAY_LENGTH) {
+			replayLength = 0;
+			states[node] = state;
+		}
+		replayLengths[node] = (byte) replayLength;
+		return node;
+	}
+
+	private void grow() {
+		int capacity = parents.length * 2;
+		parents = Arrays.copyOf(parents, capacity);
+		ruleIndexes = Arrays.copyOf(ruleIndexes, capacity);
+		gValues = Arrays.copyOf(gValues, capacity);
+		hValues = Arrays.copyOf(hValues, capacity);
+		keys = Arrays.copyOf(keys, capacity);
+		replayLengths = Arrays.copyOf(replayLengths, capacity);
+		states = Arrays.copyOf(states, capacity);
+	}
+
+	int getGValue(int node) {
+		return gValues[node];
+	}
+
+	int getHValue(int node) {
+		return hValues[node];
+	}
+
+	long getKey(int node) {
+		return keys[node];
+	}
+
+	int size() {
+		return size;
+	}
+
+	S getState(int node) {
+		int[] pendingRules = new int[replayLengths[node]];
+		int curr = node;
+		for (int i = pendingRules.length - 1; i >= 0; i--) {
+			pendingRules[i] = ruleIndexes[curr];
+			curr = parents[curr];
+		}
+
+		S state = states[curr];
+		for (int ruleIndex : pendingRules) {
+			state = apply(state, ruleIndex);
+		}
+		return state;
+	}
+
+	/**
+	 * Rebuilds the whole path from the root to the node as {@link GPSNode}s.
+	 */
+	GPSNode<R, S> toGPSNode(int node) {
+		int depth = 0;
+		for (int curr = node; parents[curr] != NO_PARENT; curr = parents[curr]) {
+			depth++;
+		}
+		int[] path = new int[depth + 1];
+		int curr = node;
+		for (int i = depth; i >= 0; i--) {
+			path[i] = curr;
+			curr = parents[curr];
+		}
+
+		S state = states[path[0]];
+		GPSNode<R, S> gpsNode = new GPSNode<>(null, state, gValues[path[0]],
+				hValues[path[0]]);
+		for (int i = 1; i < path.length; i++) {
+			R rule = rules.get(ruleIndexes[path[i]]);
+			state = apply(state, ruleIndexes[path[i]]);
+			gpsNode = new GPSNode<>(gpsNode, rule, state, gValues[path[i]],
+					hValues[path[i]]);
+		}
+		return gpsNode;
+	}
+
+	private S apply(S state, int ruleIndex) {
+		return state.apply(rules.get(ruleIndex)).orElseThrow(
+				() -> new IllegalStateException(
+						"Rule could not be replayed, states must be deterministic"));
+	}
+}
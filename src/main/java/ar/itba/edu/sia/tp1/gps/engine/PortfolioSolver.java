@@ -0,0 +1,124 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Races several engines (usually different strategy and heuristic pairs for
+ * the same problem) and keeps the first solution that is good enough. The
+ * other engines are then cancelled. Each engine runs with its own token for
+ * the race, chained to the one it was given, so cancelling that one still
+ * stops it and the engine is left as it was.
+ *
+ * Engines only race if the executor has a thread for each of them.
+ */
+public class PortfolioSolver<R extends GPSRule, S extends GPSState<R, S>> {
+	private final Executor executor;
+	private final List<GPSEngine<R, S>> engines = new ArrayList<>();
+	private final List<Boolean> optimalEngines = new ArrayList<>();
+	private boolean optimalOnly = false;
+
+	public PortfolioSolver(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * @param optimal
+	 *            if the engine's solutions are optimal, for instance A_STAR
+	 *            with an admissible heuristic.
+	 */
+	public PortfolioSolver<R, S> add(GPSEngine<R, S> engine, boolean optimal) {
+		engines.add(engine);
+		optimalEngines.add(optimal);
+		return this;
+	}
+
+	/**
+	 * Only takes solutions from the engines added as optimal, the others are
+	 * not even started.
+	 */
+	public PortfolioSolver<R, S> requireOptimal() {
+		this.optimalOnly = true;
+		return this;
+	}
+
+	/**
+	 * Returns as soon as an engine finds a complete (not truncated) solution,
+	 * without waiting for the cancelled engines to stop. An engine that fails
+	 * is left out of the race, the failure is only thrown (wrapped in an
+	 * {@link IllegalStateException}) if every engine fails.
+	 *
+	 * @return the winning solution, indexed by the position of its engine in
+	 *         the portfolio, or empty if no engine found one.
+	 */
+	public Optional<BatchResult<R, S>> solve() {
+		List<CancellationToken> tokens = new ArrayList<>(engines.size());
+		CompletionService<BatchResult<R, S>> completed = new ExecutorCompletionService<>(
+				executor);
+		for (int i = 0; i < engines.size(); i++) {
+			if (optimalOnly && !optimalEngines.get(i)) {
+				continue;
+			}
+			int index = i;
+			GPSEngine<R, S> engine = engines.get(i);
+			CancellationToken token = engine.newCancellationToken();
+			tokens.add(token);
+			long submittedAt = System.nanoTime();
+			completed.submit(() -> solve(index, engine, token, submittedAt));
+		}
+		if (tokens.isEmpty()) {
+			throw new IllegalStateException("No engine can be raced");
+		}
+
+		IllegalStateException failure = null;
+		int failures = 0;
+		try {
+			for (int pending = tokens.size(); pending > 0; pending--) {
+				try {
+					BatchResult<R, S> result = completed.take().get();
+					GPSSolution<R, S> solution = result.getSolution();
+					if (solution.isSuccess() && !solution.isTruncated()) {
+						return Optional.of(result);
+					}
+				} catch (ExecutionException e) {
+					failures++;
+					if (failure == null) {
+						failure = new IllegalStateException(e.getCause());
+					} else {
+						failure.addSuppressed(e.getCause());
+					}
+				}
+			}
+			if (failures == tokens.size()) {
+				throw failure;
+			}
+			return Optional.empty();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while solving", e);
+		} finally {
+			for (CancellationToken token : tokens) {
+				token.cancel();
+			}
+		}
+	}
+
+	private BatchResult<R, S> solve(int index, GPSEngine<R, S> engine,
+			CancellationToken token, long submittedAt) {
+		long startedAt = System.nanoTime();
+		GPSSolution<R, S> solution = engine.solve(token);
+		long finishedAt = System.nanoTime();
+		return new BatchResult<>(index, engine.getProblem(), solution,
+				Duration.ofNanos(startedAt - submittedAt),
+				Duration.ofNanos(finishedAt - startedAt));
+	}
+}
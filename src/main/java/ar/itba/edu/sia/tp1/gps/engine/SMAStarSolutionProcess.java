@@ -0,0 +1,260 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+import ar.itba.edu.sia.tp1.gps.GPSProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Simplified memory-bounded A* (SMA*). The search tree is kept in memory
+ * while it fits in the node budget. Once it does not, the worst leaves
+ * (highest f, shallowest first) are dropped and their f values are backed up
+ * into their parents, which go back to the open nodes so that the forgotten
+ * subtrees can be regenerated if they turn out to be the most promising ones
+ * again.
+ *
+ * The solution is optimal whenever the optimal path fits in the budget.
+ */
+class SMAStarSolutionProcess<R extends GPSRule, S extends GPSState<R, S>>
+		implements
+			SolutionProcess<R, S> {
+	private static final int INFINITE = Integer.MAX_VALUE;
+
+	private static final Comparator<SMAStarSolutionProcess<?, ?>.Entry> bestFirst = (
+			e1, e2) -> {
+		int comp = Integer.compare(e1.fValue, e2.fValue);
+		if (comp == 0) {
+			comp = Integer.compare(e2.depth, e1.depth);
+		}
+		return comp != 0 ? comp : Long.compare(e1.id, e2.id);
+	};
+
+	private static final Comparator<SMAStarSolutionProcess<?, ?>.Entry> worstFirst = (
+			e1, e2) -> {
+		int comp = Integer.compare(e2.fValue, e1.fValue);
+		if (comp == 0) {
+			comp = Integer.compare(e1.depth, e2.depth);
+		}
+		return comp != 0 ? comp : Long.compare(e1.id, e2.id);
+	};
+
+	private final GPSProblem<R, S> problem;
+	private final int maxDepth;
+	private final int maxNodes;
+	private final SearchBudget<R, S> budget;
+
+	private final TreeSet<Entry> openEntries = new TreeSet<>(bestFirst);
+	private final TreeSet<Entry> leaves = new TreeSet<>(worstFirst);
+	private Entry root;
+	private int nodesInMemory = 0;
+	private long nextId = 0;
+
+	private long explosionCount = 0;
+	private long analyzedNodes = 0;
+	private long generatedNodes = 0;
+
+	SMAStarSolutionProcess(GPSProblem<R, S> problem, int maxDepth,
+			int maxNodes, SearchBudget<R, S> budget) {
+		this.problem = problem;
+		this.maxDepth = maxDepth;
+		this.maxNodes = maxNodes;
+		this.budget = budget;
+	}
+
+	@Override
+	public GPSSolution<R, S> solve() {
+		S initialState = problem.getInitialState();
+		GPSNode<R, S> rootNode = new GPSNode<>(null, initialState, 0,
+				problem.getHValue(initialState));
+		root = new Entry(null, rootNode, rootNode.getFValue());
+		nodesInMemory++;
+		openEntries.add(root);
+		leaves.add(root);
+
+		while (!openEntries.isEmpty()) {
+			Entry best = openEntries.first();
+			if (best.fValue == INFINITE) {
+				break;
+			}
+			if (budget.isExhausted(explosionCount, generatedNodes)) {
+				return budget.truncated(explosionCount, analyzedNodes);
+			}
+
+			analyzedNodes++;
+			budget.observe(best.node);
+			if (problem.isGoal(best.node.getState())) {
+				return GPSSolution.of(best.node, explosionCount, analyzedNodes);
+			}
+			Entry bestChild = explode(best);
+			shrinkToFit(bestChild);
+		}
+		return GPSSolution.failure(explosionCount, analyzedNodes);
+	}
+
+	/**
+	 * (Re)generates every successor of the entry that is not in memory.
+	 *
+	 * @return the child with the lowest f value, if any.
+	 */
+	private Entry explode(Entry entry) {
+		openEntries.remove(entry);
+		leaves.remove(entry);
+		explosionCount++;
+
+		Set<S> childStates = new HashSet<>();
+		for (Entry child : entry.children) {
+			childStates.add(child.node.getState());
+		}
+
+		GPSNode<R, S> node = entry.node;
+		for (R rule : problem.getRules()) {
+			Optional<S> newStateOpt = node.getState().apply(rule);
+
+			if (newStateOpt.isPresent()) {
+				S newState = newStateOpt.get();
+				int newGValue = node.getGValue() + rule.getCost();
+
+				if (newGValue <= maxDepth && !childStates.contains(newState)
+						&& !isInPath(entry, newState)) {
+					GPSNode<R, S> newNode = new GPSNode<>(node, rule, newState,
+							newGValue, problem.getHValue(node.getState(),
+									node.getHValue(), rule, newState));
+					int newFValue = Math.max(entry.fValue, newNode.getFValue());
+					if (entry.depth + 1 >= maxNodes - 1
+							&& !problem.isGoal(newState)) {
+						// IMPORTANT: no room to go any deeper
+						newFValue = INFINITE;
+					}
+
+					Entry child = new Entry(entry, newNode, newFValue);
+					generatedNodes++;
+					entry.children.add(child);
+					nodesInMemory++;
+					openEntries.add(child);
+					leaves.add(child);
+				}
+			}
+		}
+		entry.forgottenFValue = INFINITE;
+
+		if (entry.children.isEmpty()) {
+			leaves.add(entry);
+		}
+		backUp(entry);
+
+		Entry bestChild = null;
+		for (Entry child : entry.children) {
+			if (bestChild == null || child.fValue < bestChild.fValue) {
+				bestChild = child;
+			}
+		}
+		return bestChild;
+	}
+
+	private boolean isInPath(Entry entry, S state) {
+		for (Entry curr = entry; curr != null; curr = curr.parent) {
+			if (curr.node.getState().equals(state)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Updates the f value of the entry (and its ancestors, while it keeps
+	 * changing) to the lowest one among its children, forgotten or not.
+	 */
+	private void backUp(Entry entry) {
+		for (Entry curr = entry; curr != null; curr = curr.parent) {
+			int newFValue = curr.forgottenFValue;
+			for (Entry child : curr.children) {
+				newFValue = Math.min(newFValue, child.fValue);
+			}
+			if (newFValue == curr.fValue) {
+				return;
+			}
+			updateFValue(curr, newFValue);
+		}
+	}
+
+	private void updateFValue(Entry entry, int fValue) {
+		boolean wasOpen = openEntries.remove(entry);
+		boolean wasLeaf = leaves.remove(entry);
+		entry.fValue = fValue;
+		if (wasOpen) {
+			openEntries.add(entry);
+		}
+		if (wasLeaf) {
+			leaves.add(entry);
+		}
+	}
+
+	/**
+	 * Drops the worst leaves until the tree fits in the budget again. Neither
+	 * the root nor the given entry are dropped, so that the search always
+	 * makes progress.
+	 */
+	private void shrinkToFit(Entry keep) {
+		while (nodesInMemory > maxNodes) {
+			Entry worst = null;
+			for (Entry leaf : leaves) {
+				if (leaf != root && leaf != keep) {
+					worst = leaf;
+					break;
+				}
+			}
+			if (worst == null) {
+				return;
+			}
+			forget(worst);
+		}
+	}
+
+	private void forget(Entry leaf) {
+		leaves.remove(leaf);
+		openEntries.remove(leaf);
+		nodesInMemory--;
+
+		Entry parent = leaf.parent;
+		boolean parentWasOpen = openEntries.remove(parent);
+		leaves.remove(parent);
+
+		parent.children.remove(leaf);
+		// IMPORTANT: the parent's f value stays the same, it is now backed
+		// by the forgotten child
+		parent.forgottenFValue = Math.min(parent.forgottenFValue, leaf.fValue);
+
+		if (parentWasOpen || parent.forgottenFValue != INFINITE) {
+			openEntries.add(parent);
+		}
+		if (parent.children.isEmpty()) {
+			leaves.add(parent);
+		}
+	}
+
+	private class Entry {
+		private final long id;
+		private final Entry parent;
+		private final GPSNode<R, S> node;
+		private final int depth;
+		private final List<Entry> children = new ArrayList<>();
+		private int fValue;
+		// lowest f value among the children that were dropped
+		private int forgottenFValue = INFINITE;
+
+		private Entry(Entry parent, GPSNode<R, S> node, int fValue) {
+			this.id = nextId++;
+			this.parent = parent;
+			this.node = node;
+			this.depth = parent == null ? 0 : parent.depth + 1;
+			this.fValue = fValue;
+		}
+	}
+}
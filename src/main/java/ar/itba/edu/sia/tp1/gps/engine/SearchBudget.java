@@ -0,0 +1,98 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Limits of a single run of a search (explosions, generated nodes, nodes
+ * held in memory, time and a cancellation token) along with the node with the lowest h value seen so
+ * far, which is what is handed back when the search runs out of budget.
+ *
+ * Can be shared between workers: the counts are passed in by the caller and
+ * the best node is swapped atomically.
+ */
+class SearchBudget<R extends GPSRule, S extends GPSState<R, S>> {
+	static final long UNLIMITED = Long.MAX_VALUE;
+
+	private final long maxExplosions;
+	private final long maxGeneratedNodes;
+	private final long maxStoredNodes;
+	private final boolean hasDeadline;
+	// NOTE: in System.nanoTime() terms
+	private final long deadline;
+	private final CancellationToken cancellationToken;
+
+	private final AtomicReference<GPSNode<R, S>> bestNode = new AtomicReference<>();
+
+	static <R extends GPSRule, S extends GPSState<R, S>> SearchBudget<R, S> unlimited() {
+		return new SearchBudget<>(UNLIMITED, UNLIMITED, UNLIMITED, null,
+				CancellationToken.NONE);
+	}
+
+	/**
+	 * @param timeLimit
+	 *            counted from now, null for no time limit.
+	 */
+	SearchBudget(long maxExplosions, long maxGeneratedNodes,
+			long maxStoredNodes, Duration timeLimit,
+			CancellationToken cancellationToken) {
+		this.maxExplosions = maxExplosions;
+		this.maxGeneratedNodes = maxGeneratedNodes;
+		this.maxStoredNodes = maxStoredNodes;
+		this.hasDeadline = timeLimit != null;
+		this.deadline = hasDeadline ? System.nanoTime() + timeLimit.toNanos() : 0;
+		this.cancellationToken = cancellationToken;
+	}
+
+	/**
+	 * For the searches that do not count the nodes they hold, see
+	 * {@link #isExhausted(long, long, long)}.
+	 */
+	boolean isExhausted(long explosionCount, long generatedNodes) {
+		return isExhausted(explosionCount, generatedNodes, 0);
+	}
+
+	/**
+	 * @param storedNodes
+	 *            open nodes plus closed states the search holds right now.
+	 */
+	boolean isExhausted(long explosionCount, long generatedNodes,
+			long storedNodes) {
+		return explosionCount >= maxExplosions
+				|| storedNodes >= maxStoredNodes
+				|| generatedNodes >= maxGeneratedNodes
+				|| cancellationToken.isCancelled()
+				|| (hasDeadline && System.nanoTime() - deadline >= 0);
+	}
+
+	/**
+	 * Keeps the node if it has the lowest h value so far.
+	 */
+	void observe(GPSNode<R, S> node) {
+		GPSNode<R, S> current;
+		do {
+			current = bestNode.get();
+			if (current != null && current.getHValue() <= node.getHValue()) {
+				return;
+			}
+		} while (!bestNode.compareAndSet(current, node));
+	}
+
+	GPSSolution<R, S> truncated(long explosionCount, long analyzedNodes) {
+		return truncated(null, explosionCount, analyzedNodes);
+	}
+
+	/**
+	 * @param lastNode
+	 *            goal found before running out of budget, which may not be
+	 *            the one the search would have returned. Can be null.
+	 */
+	GPSSolution<R, S> truncated(GPSNode<R, S> lastNode, long explosionCount,
+			long analyzedNodes) {
+		return GPSSolution.truncated(lastNode, bestNode.get(), explosionCount,
+				analyzedNodes);
+	}
+}
@@ -0,0 +1,268 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import ar.itba.edu.sia.tp1.gps.GPSCompactKeyProblem;
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+import ar.itba.edu.sia.tp1.gps.engine.BestCosts.CompactKeyCostConsumer;
+
+/**
+ * Snapshot of a {@link GPSSolutionProcess}: its open nodes (along with all
+ * their ancestors, so that paths survive), its best costs, its depth limit
+ * and its counters.
+ *
+ * Stored in a memory-mapped file where states are encoded by their compact
+ * keys and rules by their index in the problem's rules. It is written to a
+ * temporary file first, which then replaces the previous checkpoint, so a
+ * crash while writing never leaves a broken one behind.
+ *
+ * Best costs are only kept by compact key, to be loaded into whatever table
+ * the resumed search uses.
+ */
+class SearchCheckpoint<R extends GPSRule, S extends GPSState<R, S>> {
+	private static final int MAGIC = 0x47505343;
+	private static final int VERSION = 1;
+	private static final int NO_PARENT = -1;
+	// parent, rule, key, g, h, deferred h
+	private static final int NODE_BYTES = 4 + 4 + 8 + 4 + 4 + 1;
+	// key, cost
+	private static final int COST_BYTES = 8 + 4;
+
+	private final SearchStrategy searchStrategy;
+	private final int depthLimit;
+	private final long explosionCount;
+	private final long analyzedNodes;
+	private final long generatedNodes;
+	private final List<GPSNode<R, S>> openNodes;
+	private final int bestCostCount;
+	private final Consumer<CompactKeyCostConsumer> bestCosts;
+
+	/**
+	 * @param openNodes
+	 *            in the order the open list iterates them.
+	 */
+	SearchCheckpoint(SearchStrategy searchStrategy, int depthLimit,
+			long explosionCount, long analyzedNodes, long generatedNodes,
+			List<GPSNode<R, S>> openNodes, BestCosts<S> bestCosts) {
+		this(searchStrategy, depthLimit, explosionCount, analyzedNodes,
+				generatedNodes, openNodes, bestCosts.size(),
+				bestCosts::forEachCompactKey);
+	}
+
+	private SearchCheckpoint(SearchStrategy searchStrategy, int depthLimit,
+			long explosionCount, long analyzedNodes, long generatedNodes,
+			List<GPSNode<R, S>> openNodes, int bestCostCount,
+			Consumer<CompactKeyCostConsumer> bestCosts) {
+		this.searchStrategy = searchStrategy;
+		this.depthLimit = depthLimit;
+		this.explosionCount = explosionCount;
+		this.analyzedNodes = analyzedNodes;
+		this.generatedNodes = generatedNodes;
+		this.openNodes = openNodes;
+		this.bestCostCount = bestCostCount;
+		this.bestCosts = bestCosts;
+	}
+
+	SearchStrategy getSearchStrategy() {
+		return searchStrategy;
+	}
+
+	int getDepthLimit() {
+		return depthLimit;
+	}
+
+	long getExplosionCount() {
+		return explosionCount;
+	}
+
+	long getAnalyzedNodes() {
+		return analyzedNodes;
+	}
+
+	long getGeneratedNodes() {
+		return generatedNodes;
+	}
+
+	List<GPSNode<R, S>> getOpenNodes() {
+		return openNodes;
+	}
+
+	int getBestCostCount() {
+		return bestCostCount;
+	}
+
+	/**
+	 * Visits every best cost, by the compact key of its state.
+	 */
+	void forEachBestCost(CompactKeyCostConsumer consumer) {
+		bestCosts.accept(consumer);
+	}
+
+	void write(Path file, List<R> rules) throws IOException {
+		Map<GPSNode<R, S>, Integer> ids = new IdentityHashMap<>();
+		List<GPSNode<R, S>> nodes = new ArrayList<>();
+		for (GPSNode<R, S> node : openNodes) {
+			addWithAncestors(node, ids, nodes);
+		}
+
+		byte[] strategyName = searchStrategy.name().getBytes(
+				StandardCharsets.UTF_8);
+		long size = 4 + 4 + 4 + strategyName.length + 4 + 8 + 8 + 8 + 4 + 4
+				+ 4 + (long) nodes.size() * NODE_BYTES + (long) openNodes.size()
+				* 4 + (long) bestCostCount * COST_BYTES;
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalStateException(
+					"Checkpoint does not fit in a single mapping");
+		}
+
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(tempFile, CREATE, READ,
+				WRITE, TRUNCATE_EXISTING)) {
+			MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, size);
+			buffer.putInt(MAGIC).putInt(VERSION);
+			buffer.putInt(strategyName.length).put(strategyName);
+			buffer.putInt(depthLimit);
+			buffer.putLong(explosionCount).putLong(analyzedNodes)
+					.putLong(generatedNodes);
+			buffer.putInt(nodes.size()).putInt(openNodes.size())
+					.putInt(bestCostCount);
+
+			for (GPSNode<R, S> node : nodes) {
+				GPSNode<R, S> parent = node.getParent();
+				buffer.putInt(parent == null ? NO_PARENT : ids.get(parent));
+				buffer.putInt(parent == null ? -1 : ruleIndex(node, rules));
+				buffer.putLong(node.getState().getCompactKey());
+				buffer.putInt(node.getGValue()).putInt(node.getHValue());
+				buffer.put((byte) (node.isHValueDeferred() ? 1 : 0));
+			}
+			for (GPSNode<R, S> node : openNodes) {
+				buffer.putInt(ids.get(node));
+			}
+			forEachBestCost((key, cost) -> buffer.putLong(key).putInt(cost));
+			buffer.force();
+		}
+		Files.move(tempFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+	}
+
+	/**
+	 * Adds the node after the ancestors that are not in yet, so that parents
+	 * always come first.
+	 */
+	private static <R extends GPSRule, S extends GPSState<R, S>> void addWithAncestors(
+			GPSNode<R, S> node, Map<GPSNode<R, S>, Integer> ids,
+			List<GPSNode<R, S>> nodes) {
+		Deque<GPSNode<R, S>> missing = new ArrayDeque<>();
+		for (GPSNode<R, S> curr = node; curr != null && !ids.containsKey(curr); curr = curr
+				.getParent()) {
+			missing.push(curr);
+		}
+		while (!missing.isEmpty()) {
+			GPSNode<R, S> curr = missing.pop();
+			ids.put(curr, nodes.size());
+			nodes.add(curr);
+		}
+	}
+
+	/**
+	 * Rules are not required to be comparable, so if the node's rule is not
+	 * found as is, the one that leads from the parent's state to the node's
+	 * is looked for.
+	 */
+	private int ruleIndex(GPSNode<R, S> node, List<R> rules) {
+		int index = rules.indexOf(node.getRule());
+		if (index >= 0) {
+			return index;
+		}
+		S parentState = node.getParent().getState();
+		for (int i = 0; i < rules.size(); i++) {
+			Optional<S> stateOpt = parentState.apply(rules.get(i));
+			if (stateOpt.isPresent() && stateOpt.get().equals(node.getState())) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("No rule leads to " + node.getState());
+	}
+
+	static <R extends GPSRule, S extends GPSState<R, S>> SearchCheckpoint<R, S> read(
+			Path file, GPSCompactKeyProblem<R, S> problem) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, READ)) {
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0,
+					channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				throw new IllegalStateException("Not a search checkpoint: "
+						+ file);
+			}
+			byte[] strategyName = new byte[buffer.getInt()];
+			buffer.get(strategyName);
+			SearchStrategy searchStrategy = SearchStrategy.valueOf(new String(
+					strategyName, StandardCharsets.UTF_8));
+			int depthLimit = buffer.getInt();
+			long explosionCount = buffer.getLong();
+			long analyzedNodes = buffer.getLong();
+			long generatedNodes = buffer.getLong();
+			int nodeCount = buffer.getInt();
+			int openCount = buffer.getInt();
+			int costCount = buffer.getInt();
+
+			List<R> rules = problem.getRules();
+			List<GPSNode<R, S>> nodes = new ArrayList<>(nodeCount);
+			for (int i = 0; i < nodeCount; i++) {
+				int parentId = buffer.getInt();
+				int ruleIndex = buffer.getInt();
+				S state = problem.getState(buffer.getLong());
+				int gValue = buffer.getInt();
+				int hValue = buffer.getInt();
+				boolean hValueDeferred = buffer.get() != 0;
+
+				GPSNode<R, S> parent = parentId == NO_PARENT ? null : nodes
+						.get(parentId);
+				R rule = ruleIndex < 0 ? null : rules.get(ruleIndex);
+				nodes.add(hValueDeferred ? GPSNode.withDeferredHValue(parent,
+						rule, state, gValue, hValue) : new GPSNode<>(parent,
+						rule, state, gValue, hValue));
+			}
+
+			List<GPSNode<R, S>> openNodes = new ArrayList<>(openCount);
+			for (int i = 0; i < openCount; i++) {
+				openNodes.add(nodes.get(buffer.getInt()));
+			}
+
+			long[] keys = new long[costCount];
+			int[] costs = new int[costCount];
+			for (int i = 0; i < costCount; i++) {
+				keys[i] = buffer.getLong();
+				costs[i] = buffer.getInt();
+			}
+
+			return new SearchCheckpoint<>(searchStrategy, depthLimit,
+					explosionCount, analyzedNodes, generatedNodes, openNodes,
+					costCount, consumer -> {
+						for (int i = 0; i < costCount; i++) {
+							consumer.accept(keys[i], costs[i]);
+						}
+					});
+		}
+	}
+}
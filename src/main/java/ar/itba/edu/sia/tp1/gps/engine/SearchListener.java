@@ -0,0 +1,86 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Follows the steps of a search, as they happen. Only the strategies that
+ * poll an open list on a single worker (A_STAR, GREEDY, WEIGHTED_A_STAR,
+ * IDDFS, BFS and DFS) report to it.
+ *
+ * Every callback runs in the search's own loop, so it should be cheap.
+ */
+public interface SearchListener<R extends GPSRule, S extends GPSState<R, S>> {
+	/**
+	 * A new iteration starts from the initial state. Called once for
+	 * strategies that are not iterative.
+	 *
+	 * @param depthLimit
+	 *            the highest g value the iteration can reach.
+	 */
+	default void onIterationStart(int depthLimit) {
+	}
+
+	/**
+	 * @param frontierSize
+	 *            number of open nodes, the new one included.
+	 */
+	default void onNodeGenerated(GPSNode<R, S> node, int frontierSize) {
+	}
+
+	/**
+	 * @param reExpansion
+	 *            whether the node's state had already been expanded at a
+	 *            higher cost.
+	 */
+	default void onNodeExpanded(GPSNode<R, S> node, boolean reExpansion) {
+	}
+
+	/**
+	 * The state was dropped because it had already been expanded at the same
+	 * or a lower cost.
+	 */
+	default void onNodePruned(S state, int gValue) {
+	}
+
+	default void onGoalFound(GPSNode<R, S> node) {
+	}
+
+	/**
+	 * @return a listener that notifies this one and then the other one.
+	 */
+	default SearchListener<R, S> andThen(SearchListener<R, S> other) {
+		SearchListener<R, S> first = this;
+		return new SearchListener<R, S>() {
+			@Override
+			public void onIterationStart(int depthLimit) {
+				first.onIterationStart(depthLimit);
+				other.onIterationStart(depthLimit);
+			}
+
+			@Override
+			public void onNodeGenerated(GPSNode<R, S> node, int frontierSize) {
+				first.onNodeGenerated(node, frontierSize);
+				other.onNodeGenerated(node, frontierSize);
+			}
+
+			@Override
+			public void onNodeExpanded(GPSNode<R, S> node, boolean reExpansion) {
+				first.onNodeExpanded(node, reExpansion);
+				other.onNodeExpanded(node, reExpansion);
+			}
+
+			@Override
+			public void onNodePruned(S state, int gValue) {
+				first.onNodePruned(state, gValue);
+				other.onNodePruned(state, gValue);
+			}
+
+			@Override
+			public void onGoalFound(GPSNode<R, S> node) {
+				first.onGoalFound(node);
+				other.onGoalFound(node);
+			}
+		};
+	}
+}
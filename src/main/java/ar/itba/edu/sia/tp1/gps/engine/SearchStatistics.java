@@ -0,0 +1,104 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static ar.itba.edu.sia.tp1.util.ObjectUtils.toStringBuilder;
+
+import java.util.Arrays;
+
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Counters collected while a search runs: generated and expanded nodes for
+ * each depth (g value), pruned nodes, re-expansions, iterations and the
+ * largest the frontier got.
+ */
+public class SearchStatistics<R extends GPSRule, S extends GPSState<R, S>>
+		implements
+			SearchListener<R, S> {
+	private long[] generatedByDepth = new long[16];
+	private long[] expandedByDepth = new long[16];
+	private int maxDepth = 0;
+	private int maxFrontierSize = 0;
+	private long reExpansions = 0;
+	private long prunedNodes = 0;
+	private int iterations = 0;
+
+	@Override
+	public void onIterationStart(int depthLimit) {
+		iterations++;
+	}
+
+	@Override
+	public void onNodeGenerated(GPSNode<R, S> node, int frontierSize) {
+		generatedByDepth = count(generatedByDepth, node.getGValue());
+		maxFrontierSize = Math.max(maxFrontierSize, frontierSize);
+	}
+
+	@Override
+	public void onNodeExpanded(GPSNode<R, S> node, boolean reExpansion) {
+		expandedByDepth = count(expandedByDepth, node.getGValue());
+		if (reExpansion) {
+			reExpansions++;
+		}
+	}
+
+	@Override
+	public void onNodePruned(S state, int gValue) {
+		prunedNodes++;
+	}
+
+	private long[] count(long[] counters, int depth) {
+		long[] result = counters;
+		if (depth >= result.length) {
+			result = Arrays.copyOf(result, Math.max(depth + 1,
+					result.length * 2));
+		}
+		result[depth]++;
+		maxDepth = Math.max(maxDepth, depth);
+		return result;
+	}
+
+	public long getGeneratedNodes(int depth) {
+		return depth < generatedByDepth.length ? generatedByDepth[depth] : 0;
+	}
+
+	public long getExpandedNodes(int depth) {
+		return depth < expandedByDepth.length ? expandedByDepth[depth] : 0;
+	}
+
+	/**
+	 * Highest depth with a generated or expanded node.
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public int getMaxFrontierSize() {
+		return maxFrontierSize;
+	}
+
+	public long getReExpansions() {
+		return reExpansions;
+	}
+
+	public long getPrunedNodes() {
+		return prunedNodes;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	@Override
+	public String toString() {
+		return toStringBuilder(this)
+				.append("generatedByDepth",
+						Arrays.copyOf(generatedByDepth, maxDepth + 1))
+				.append("expandedByDepth",
+						Arrays.copyOf(expandedByDepth, maxDepth + 1))
+				.append("maxFrontierSize", maxFrontierSize)
+				.append("reExpansions", reExpansions)
+				.append("prunedNodes", prunedNodes)
+				.append("iterations", iterations).toString();
+	}
+}
@@ -4,22 +4,36 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public enum SearchStrategy {
-	A_STAR(true),GREEDY(true), IDDFS, BFS, DFS;
-
+	// NOTE: IDA_STAR, SMA_STAR, ARA_STAR and BEAM run on their own processes,
+	// which keep their own structures instead of the frontier built from
+	// getFrontier(); theirs only tells the order nodes are taken in (IDA_STAR
+	// goes depth first under each bound, hence LIFO)
+	A_STAR(Frontier.PRIORITY, true), GREEDY(Frontier.PRIORITY, true), IDA_STAR(
+			Frontier.LIFO, true), SMA_STAR(Frontier.PRIORITY, true), WEIGHTED_A_STAR(
+			Frontier.PRIORITY, true), ARA_STAR(Frontier.PRIORITY, true), BEAM(
+			Frontier.FIFO, true), IDDFS(
+			Frontier.LIFO), BFS(Frontier.FIFO), DFS(Frontier.LIFO);
+
+	private final Frontier frontier;
 	private final boolean informed;
 
-	private SearchStrategy(boolean informed) {
+	private SearchStrategy(Frontier frontier, boolean informed) {
+		this.frontier = frontier;
 		this.informed = informed;
 	}
 
-	private SearchStrategy() {
-		this(false);
+	private SearchStrategy(Frontier frontier) {
+		this(frontier, false);
 	}
 
 	public boolean isInformed() {
 		return informed;
 	}
 
+	public Frontier getFrontier() {
+		return frontier;
+	}
+
 	public static Iterable<SearchStrategy> informed() {
 		return Stream.of(values()).filter(SearchStrategy::isInformed)
 				.collect(Collectors.toList());
@@ -0,0 +1,13 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import ar.itba.edu.sia.tp1.gps.GPSRule;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * A single run of a search over a problem, built by a {@link GPSEngine} for
+ * each call to {@link GPSEngine#solve()}.
+ */
+@FunctionalInterface
+interface SolutionProcess<R extends GPSRule, S extends GPSState<R, S>> {
+	GPSSolution<R, S> solve();
+}
@@ -0,0 +1,43 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event that spans a whole call to {@link GPSEngine#solve()}.
+ */
+@Name("ar.itba.edu.sia.tp1.gps.Solve")
+@Label("GPS Solve")
+@Category("GPS")
+@Description("A search run by a GPSEngine")
+@StackTrace(false)
+class SolveEvent extends Event {
+	@Label("Strategy")
+	String strategy;
+
+	@Label("Problem")
+	String problem;
+
+	@Label("Heuristic")
+	String heuristic;
+
+	@Label("Rules")
+	@Description("Number of rules of the problem")
+	int rules;
+
+	@Label("Explosions")
+	long explosions;
+
+	@Label("Analyzed Nodes")
+	long analyzedNodes;
+
+	@Label("Success")
+	boolean success;
+
+	@Label("Truncated")
+	boolean truncated;
+}
@@ -0,0 +1,45 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import ar.itba.edu.sia.tp1.gps.GPSState;
+
+/**
+ * Best costs keyed by the states themselves.
+ */
+class StateBestCosts<S extends GPSState<?, S>> implements BestCosts<S> {
+	private final TObjectIntHashMap<S> bestCosts = new TObjectIntHashMap<>();
+
+	@Override
+	public boolean isBetterThanCurrentBest(S state, int cost) {
+		return !bestCosts.containsKey(state) || cost < bestCosts.get(state);
+	}
+
+	@Override
+	public void updateBestCost(S state, int cost) {
+		bestCosts.put(state, cost);
+	}
+
+	@Override
+	public void updateBestCost(long compactKey, int cost) {
+		throw new IllegalStateException(
+				"States are kept by themselves, not by compact keys");
+	}
+
+	@Override
+	public boolean contains(S state) {
+		return bestCosts.containsKey(state);
+	}
+
+	@Override
+	public void forEachCompactKey(CompactKeyCostConsumer consumer) {
+		bestCosts.forEachEntry((state, cost) -> {
+			consumer.accept(state.getCompactKey(), cost);
+			return true;
+		});
+	}
+
+	@Override
+	public int size() {
+		return bestCosts.size();
+	}
+}
@@ -3,10 +3,14 @@ package ar.itba.edu.sia.tp1.calcudoku.domain;
 import static ar.itba.edu.sia.tp1.calcudoku.domain.Operator.DIVIDE;
 import static ar.itba.edu.sia.tp1.calcudoku.domain.Operator.MINUS;
 import static ar.itba.edu.sia.tp1.calcudoku.domain.Position.position;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.Test;
 
@@ -41,4 +45,73 @@ public class BoardTest {
 
 		assertTrue(board.isValid());
 	}
+
+	@Test
+	public void testCompactKeyRoundTrip() {
+		for (int n = 1; n <= 6; n++) {
+			for (long seed = 0; seed < 5; seed++) {
+				Board board = Boards.random(n, seed);
+
+				assertTrue(board.hasCompactKey());
+				assertEquals(board, board.withCompactKey(board.getCompactKey()));
+				assertEquals(board.getCompactKey(), board.getCompactKey(-1));
+			}
+		}
+	}
+
+	@Test
+	public void testCompactKeysAreDistinct() {
+		// NOTE: every board with permutations of 1..3 as rows
+		Board board = Boards.random(N, 0);
+		Set<Board> boards = new HashSet<>();
+		for (long key = 0; key < 6 * 6 * 6; key++) {
+			Board rebuilt = board.withCompactKey(key);
+
+			assertEquals(key, rebuilt.getCompactKey());
+			boards.add(rebuilt);
+		}
+		assertEquals(6 * 6 * 6, boards.size());
+	}
+
+	@Test
+	public void testSwapsChangeTheCompactKey() {
+		Board board = Boards.random(6, 1);
+		Set<Long> keys = new HashSet<>();
+		keys.add(board.getCompactKey());
+		for (int row = 0; row < board.getN(); row++) {
+			for (int col = 1; col < board.getN(); col++) {
+				Board swapped = board.deepCopy();
+				swapped.swapCellValues(position(row, 0), position(row, col));
+
+				assertTrue(keys.add(swapped.getCompactKey()));
+			}
+		}
+	}
+
+	@Test
+	public void testBigBoardsHaveNoCompactKey() {
+		Board board = Boards.random(7, 0);
+
+		assertFalse(board.hasCompactKey());
+		assertEquals(-1, board.getCompactKey(-1));
+	}
+
+	@Test
+	public void testRowsThatAreNotPermutationsHaveNoCompactKey() {
+		Board repeated = Boards.random(4, 0);
+		repeated.put(0, 0, repeated.getCellValue(0, 1));
+		Board empty = new Board(4, Boards.random(4, 0).getGroups());
+
+		assertFalse(repeated.hasCompactKey());
+		assertEquals(-1, repeated.getCompactKey(-1));
+		assertFalse(empty.hasCompactKey());
+		assertEquals(-1, empty.getCompactKey(-1));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testGetCompactKeyRejectsRowsThatAreNotPermutations() {
+		Board board = Boards.random(4, 0);
+		board.put(0, 0, board.getCellValue(0, 1));
+		board.getCompactKey();
+	}
 }
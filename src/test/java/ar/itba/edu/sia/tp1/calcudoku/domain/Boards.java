@@ -0,0 +1,115 @@
+package ar.itba.edu.sia.tp1.calcudoku.domain;
+
+import static ar.itba.edu.sia.tp1.calcudoku.domain.Position.position;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random boards to check what does not depend on a particular puzzle.
+ */
+public final class Boards {
+	private static final Operator[] PAIR_OPERATORS = { Operator.PLUS,
+			Operator.MINUS, Operator.MULTIPLY, Operator.DIVIDE };
+
+	private Boards() {
+	}
+
+	/**
+	 * @return a board whose groups (of one to three cells) are those of a
+	 *         random solution, filled with a random permutation in each row.
+	 */
+	public static Board random(int n, long seed) {
+		Random random = new Random(seed);
+		int[][] solution = latinSquare(n, random);
+		Board board = new Board(n, groups(solution, random));
+		for (int row = 0; row < n; row++) {
+			List<Integer> values = new ArrayList<>(n);
+			for (int value = 1; value <= n; value++) {
+				values.add(value);
+			}
+			Collections.shuffle(values, random);
+			for (int col = 0; col < n; col++) {
+				board.put(row, col, values.get(col));
+			}
+		}
+		return board;
+	}
+
+	private static int[][] latinSquare(int n, Random random) {
+		List<Integer> rows = shuffled(n, random);
+		List<Integer> cols = shuffled(n, random);
+		int[][] square = new int[n][n];
+		for (int row = 0; row < n; row++) {
+			for (int col = 0; col < n; col++) {
+				square[row][col] = (rows.get(row) + cols.get(col)) % n + 1;
+			}
+		}
+		return square;
+	}
+
+	private static List<Integer> shuffled(int n, Random random) {
+		List<Integer> values = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			values.add(i);
+		}
+		Collections.shuffle(values, random);
+		return values;
+	}
+
+	private static List<Group> groups(int[][] solution, Random random) {
+		int n = solution.length;
+		boolean[][] grouped = new boolean[n][n];
+		List<Group> groups = new ArrayList<>();
+		for (int row = 0; row < n; row++) {
+			for (int col = 0; col < n; col++) {
+				if (grouped[row][col]) {
+					continue;
+				}
+				grouped[row][col] = true;
+				int a = solution[row][col];
+				int size = random.nextInt(3) + 1;
+				if (size > 1 && col + 1 < n && !grouped[row][col + 1]) {
+					grouped[row][col + 1] = true;
+					int b = solution[row][col + 1];
+					if (size > 2 && row + 1 < n) {
+						grouped[row + 1][col] = true;
+						int c = solution[row + 1][col];
+						groups.add(Group.of(Operator.PLUS, a + b + c,
+								position(row, col), position(row, col + 1),
+								position(row + 1, col)));
+					} else {
+						groups.add(pair(a, b, random, position(row, col),
+								position(row, col + 1)));
+					}
+				} else {
+					groups.add(Group.of(Operator.IDENTITY, a,
+							position(row, col)));
+				}
+			}
+		}
+		return groups;
+	}
+
+	private static Group pair(int a, int b, Random random, Position first,
+			Position second) {
+		int greater = Math.max(a, b);
+		int lesser = Math.min(a, b);
+		Operator operator = PAIR_OPERATORS[random.nextInt(PAIR_OPERATORS.length)];
+		switch (operator) {
+		case MINUS:
+			return Group.of(operator, greater - lesser, first, second);
+		case MULTIPLY:
+			return Group.of(operator, greater * lesser, first, second);
+		case DIVIDE:
+			if (greater % lesser == 0) {
+				return Group.of(operator, greater / lesser, first, second);
+			}
+			// NOTE: falls back to a sum
+		default:
+			return Group.of(Operator.PLUS, greater + lesser, first, second);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package ar.itba.edu.sia.tp1.calcudoku.heuristic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.calcudoku.CalcudokuProblem;
+import ar.itba.edu.sia.tp1.calcudoku.CalcudokuRule;
+import ar.itba.edu.sia.tp1.calcudoku.CalcudokuState;
+import ar.itba.edu.sia.tp1.calcudoku.domain.Boards;
+
+public class CalcudokuHeuristicTest {
+	private static final List<CalcudokuHeuristic> HEURISTICS = Arrays.asList(
+			new H1(), new H2(), new H3(), new H4(), new H5(), new H6(),
+			new H7(), new H8(), new H9(), new H13(), new H14(), new H15(),
+			new H16());
+	private static final int STEPS = 10;
+	private static final int SEEDS = 3;
+
+	@Test
+	public void testIncrementalValueMatchesFullValue() {
+		for (int n = 3; n <= 6; n++) {
+			for (long seed = 0; seed < SEEDS; seed++) {
+				CalcudokuProblem problem = new CalcudokuProblem(
+						Boards.random(n, seed));
+				List<CalcudokuRule> rules = problem.getRules();
+				Random random = new Random(seed);
+				CalcudokuState state = problem.getInitialState();
+				for (int step = 0; step < STEPS; step++) {
+					assertChildrenMatch(state, rules);
+					state = state.apply(
+							rules.get(random.nextInt(rules.size()))).get();
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIncrementalValueFollowsInPlaceChanges() {
+		for (int n = 3; n <= 6; n++) {
+			CalcudokuProblem problem = new CalcudokuProblem(Boards.random(n,
+					n));
+			List<CalcudokuRule> rules = problem.getRules();
+			Random random = new Random(n);
+			// IMPORTANT: the same parent object, changed between evaluations
+			CalcudokuState state = problem.getInitialState().mutableCopy();
+			for (int step = 0; step < STEPS; step++) {
+				assertChildrenMatch(state, rules);
+				state.applyInPlace(rules.get(random.nextInt(rules.size())));
+			}
+		}
+	}
+
+	private void assertChildrenMatch(CalcudokuState parentState,
+			List<CalcudokuRule> rules) {
+		int[] parentValues = new int[HEURISTICS.size()];
+		for (int i = 0; i < parentValues.length; i++) {
+			parentValues[i] = HEURISTICS.get(i).getValue(parentState);
+		}
+		for (CalcudokuRule rule : rules) {
+			CalcudokuState state = parentState.apply(rule).get();
+			for (int i = 0; i < parentValues.length; i++) {
+				CalcudokuHeuristic heuristic = HEURISTICS.get(i);
+				assertEquals(heuristic + " after " + rule,
+						heuristic.getValue(state), heuristic.getValue(
+								parentState, parentValues[i], rule, state));
+			}
+		}
+	}
+}
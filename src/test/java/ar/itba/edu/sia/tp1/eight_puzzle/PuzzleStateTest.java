@@ -0,0 +1,134 @@
+package ar.itba.edu.sia.tp1.eight_puzzle;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.util.Optional;
+
+import org.junit.Test;
+
+public class PuzzleStateTest {
+	private static final int B = PuzzleState.BLANK;
+
+	private final int[][] center = { { 1, 2, 3 }, { 4, B, 5 }, { 6, 7, 8 } };
+
+	@Test
+	public void testEqualStatesHaveEqualHashCodes() {
+		PuzzleState state = new PuzzleState(center);
+		PuzzleState same = new PuzzleState(new int[][] { { 1, 2, 3 },
+				{ 4, B, 5 }, { 6, 7, 8 } });
+		PuzzleState other = new PuzzleState(new int[][] { { 1, 2, 3 },
+				{ 4, 5, B }, { 6, 7, 8 } });
+
+		assertEquals(state, same);
+		assertEquals(state.hashCode(), same.hashCode());
+		assertNotEquals(state, other);
+		assertNotEquals(state, null);
+	}
+
+	@Test
+	public void testApplyMovesTheBlank() {
+		PuzzleState state = new PuzzleState(center);
+
+		assertArrayEquals(new int[][] { { 1, B, 3 }, { 4, 2, 5 }, { 6, 7, 8 } },
+				moved(state, Direction.UP).getMap());
+		assertArrayEquals(new int[][] { { 1, 2, 3 }, { 4, 7, 5 }, { 6, B, 8 } },
+				moved(state, Direction.DOWN).getMap());
+		assertArrayEquals(new int[][] { { 1, 2, 3 }, { B, 4, 5 }, { 6, 7, 8 } },
+				moved(state, Direction.LEFT).getMap());
+		assertArrayEquals(new int[][] { { 1, 2, 3 }, { 4, 5, B }, { 6, 7, 8 } },
+				moved(state, Direction.RIGHT).getMap());
+		assertEquals(new Point(0, 1), moved(state, Direction.UP)
+				.getBlankCoords());
+		// NOTE: the state itself does not change
+		assertEquals(new PuzzleState(center), state);
+	}
+
+	@Test
+	public void testApplyKeepsTheBlankOnTheBoard() {
+		PuzzleState corner = new PuzzleState(new int[][] { { B, 1, 2 },
+				{ 3, 4, 5 }, { 6, 7, 8 } });
+
+		assertFalse(corner.apply(new PuzzleRule(Direction.UP)).isPresent());
+		assertFalse(corner.apply(new PuzzleRule(Direction.LEFT)).isPresent());
+		assertFalse(corner.isValid(new PuzzleRule(Direction.UP)));
+		assertTrue(corner.isValid(new PuzzleRule(Direction.DOWN)));
+	}
+
+	@Test
+	public void testApplyInPlaceMatchesApplyAndIsUndone() {
+		PuzzleState state = new PuzzleState(center);
+		PuzzleState copy = state.mutableCopy();
+		Direction[] moves = { Direction.UP, Direction.LEFT, Direction.DOWN,
+				Direction.DOWN, Direction.RIGHT };
+
+		PuzzleState expected = state;
+		for (Direction move : moves) {
+			expected = moved(expected, move);
+			assertTrue(copy.applyInPlace(new PuzzleRule(move)));
+			assertEquals(expected, copy);
+			assertEquals(expected.getBlankCoords(), copy.getBlankCoords());
+		}
+		assertFalse(copy.applyInPlace(new PuzzleRule(Direction.DOWN)));
+		for (int i = moves.length - 1; i >= 0; i--) {
+			copy.undo(new PuzzleRule(moves[i]));
+		}
+
+		assertEquals(state, copy);
+		assertEquals(new Point(1, 1), copy.getBlankCoords());
+		// NOTE: the copy is independent of the original
+		assertEquals(new PuzzleState(center), state);
+	}
+
+	@Test
+	public void testCompactKeyRoundTrip() {
+		PuzzleState state = new PuzzleState(center);
+		for (Direction move : new Direction[] { Direction.UP,
+				Direction.RIGHT, Direction.DOWN, Direction.DOWN }) {
+			PuzzleState rebuilt = PuzzleState.fromCompactKey(state
+					.getCompactKey());
+
+			assertTrue(state.hasCompactKey());
+			assertEquals(state, rebuilt);
+			assertEquals(state.getBlankCoords(), rebuilt.getBlankCoords());
+			assertNotEquals(state.getCompactKey(), moved(state, move)
+					.getCompactKey());
+			state = moved(state, move);
+		}
+	}
+
+	@Test
+	public void testGetMapIsACopy() {
+		PuzzleState state = new PuzzleState(center);
+		int[][] map = state.getMap();
+
+		assertArrayEquals(center, map);
+		map[0][0] = 8;
+		assertArrayEquals(center, state.getMap());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsTilesThatLookLikeTheBlank() {
+		new PuzzleState(new int[][] { { 1, 2, 3 }, { 4, B, 5 }, { 6, 7, 15 } });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsNegativeTiles() {
+		new PuzzleState(new int[][] { { -2, 2, 3 }, { 4, B, 5 }, { 6, 7, 8 } });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsTilesThatDoNotFit() {
+		new PuzzleState(new int[][] { { 9, 2, 3 }, { 4, B, 5 }, { 6, 7, 8 } });
+	}
+
+	private static PuzzleState moved(PuzzleState state, Direction direction) {
+		Optional<PuzzleState> next = state.apply(new PuzzleRule(direction));
+		assertTrue(next.isPresent());
+		return next.get();
+	}
+}
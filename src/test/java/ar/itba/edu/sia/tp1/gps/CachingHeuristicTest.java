@@ -0,0 +1,181 @@
+package ar.itba.edu.sia.tp1.gps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class CachingHeuristicTest {
+	@Test
+	public void testEvaluatesEachStateOnce() {
+		CountingHeuristic counting = new CountingHeuristic();
+		CachingHeuristic<KeyState> cache = new CachingHeuristic<>(counting,
+				1024);
+
+		assertEquals(14, cache.getValue(new KeyState(7)));
+		assertEquals(14, cache.getValue(new KeyState(7)));
+		assertEquals(16, cache.getValue(new KeyState(8)));
+		assertEquals(14, cache.getValue(new KeyState(7)));
+
+		assertEquals(2, counting.evaluations);
+		assertEquals(2, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(0.5, cache.getHitRatio(), 0);
+	}
+
+	@Test
+	public void testDoesNotCacheStatesWithoutCompactKey() {
+		CountingHeuristic counting = new CountingHeuristic();
+		CachingHeuristic<KeyState> cache = new CachingHeuristic<>(counting,
+				1024);
+
+		cache.getValue(new KeyState(7, false));
+		cache.getValue(new KeyState(7, false));
+
+		assertEquals(2, counting.evaluations);
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHits() + cache.getMisses());
+	}
+
+	@Test
+	public void testWorksOutEachKeyOnce() {
+		CachingHeuristic<KeyState> cache = new CachingHeuristic<>(
+				new CountingHeuristic(), 1024);
+		KeyRequests requests = new KeyRequests();
+
+		for (long key : new long[] { 7, 7, 8 }) {
+			cache.getValue(requests.state(key, true));
+			cache.getValue(null, 0, null, requests.state(key, true));
+		}
+
+		assertEquals(1, requests.checks);
+		assertEquals(6, requests.keys);
+	}
+
+	@Test
+	public void testOnlyChecksTheFirstStateForKeys() {
+		CachingHeuristic<KeyState> cache = new CachingHeuristic<>(
+				new CountingHeuristic(), 1024);
+		KeyRequests requests = new KeyRequests();
+
+		for (long key : new long[] { 7, 7, 8 }) {
+			cache.getValue(requests.state(key, false));
+		}
+
+		assertEquals(1, requests.checks);
+		assertEquals(0, requests.keys);
+	}
+
+	@Test
+	public void testNeverGrowsPastCapacity() {
+		CachingHeuristic<KeyState> cache = new CachingHeuristic<>(
+				new CountingHeuristic(), 100);
+		for (long key = 0; key < 10000; key++) {
+			cache.getValue(new KeyState(key));
+		}
+
+		assertEquals(64, cache.capacity());
+		assertTrue(cache.size() <= cache.capacity());
+		assertEquals(10000 - cache.size(), cache.getEvictions());
+	}
+
+	@Test
+	public void testEvictsUnreferencedFirst() {
+		// IMPORTANT: a single set, every key collides
+		CountingHeuristic counting = new CountingHeuristic();
+		CachingHeuristic<KeyState> cache = new CachingHeuristic<>(counting, 8);
+		for (long key = 0; key < 8; key++) {
+			cache.getValue(new KeyState(key));
+		}
+		for (long key = 0; key < 4; key++) {
+			cache.getValue(new KeyState(key));
+		}
+
+		cache.getValue(new KeyState(100));
+		assertEquals(1, cache.getEvictions());
+		assertEquals(9, counting.evaluations);
+
+		for (long key = 0; key < 4; key++) {
+			cache.getValue(new KeyState(key));
+		}
+		assertEquals(9, counting.evaluations);
+		cache.getValue(new KeyState(4));
+		assertEquals(10, counting.evaluations);
+	}
+
+	@Test
+	public void testNeverReturnsTheValueOfAnotherState() throws Exception {
+		// IMPORTANT: a single set, so entries are taken over all the time
+		CachingHeuristic<KeyState> cache = new CachingHeuristic<>(
+				state -> (int) state.getKey() * 2, 8);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int thread = 0; thread < 4; thread++) {
+				long seed = thread;
+				results.add(executor.submit(() -> {
+					Random random = new Random(seed);
+					for (int i = 0; i < 100000; i++) {
+						long key = random.nextInt(32);
+						if (cache.getValue(new KeyState(key)) != key * 2) {
+							return false;
+						}
+					}
+					return true;
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static class CountingHeuristic implements GPSHeuristic<KeyState> {
+		private int evaluations = 0;
+
+		@Override
+		public int getValue(KeyState state) {
+			evaluations++;
+			return (int) state.getKey() * 2;
+		}
+	}
+
+	/**
+	 * Counts how many times the states it makes are asked for their keys.
+	 */
+	private static class KeyRequests {
+		private int checks = 0;
+		private int keys = 0;
+
+		private KeyState state(long key, boolean hasCompactKey) {
+			return new KeyState(key, hasCompactKey) {
+				@Override
+				public boolean hasCompactKey() {
+					checks++;
+					return super.hasCompactKey();
+				}
+
+				@Override
+				public long getCompactKey() {
+					keys++;
+					return super.getCompactKey();
+				}
+
+				@Override
+				public long getCompactKey(long noKey) {
+					keys++;
+					return super.getCompactKey(noKey);
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package ar.itba.edu.sia.tp1.gps;
+
+import java.util.Optional;
+
+/**
+ * A state that is nothing but its compact key, for the tests of what is
+ * keyed by it.
+ */
+public class KeyState extends GPSState<GPSRule, KeyState> {
+	private final long key;
+	private final boolean hasCompactKey;
+
+	public KeyState(long key) {
+		this(key, true);
+	}
+
+	public KeyState(long key, boolean hasCompactKey) {
+		this.key = key;
+		this.hasCompactKey = hasCompactKey;
+	}
+
+	public long getKey() {
+		return key;
+	}
+
+	@Override
+	public Optional<KeyState> apply(GPSRule rule) {
+		return Optional.empty();
+	}
+
+	@Override
+	public boolean hasCompactKey() {
+		return hasCompactKey;
+	}
+
+	@Override
+	public long getCompactKey() {
+		return key;
+	}
+
+	@Override
+	public long getCompactKey(long noKey) {
+		return hasCompactKey ? key : noKey;
+	}
+
+	@Override
+	public boolean equals(Object state) {
+		return state instanceof KeyState && ((KeyState) state).key == key;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(key);
+	}
+}
@@ -0,0 +1,66 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class ARAStarSolutionProcessTest {
+	private static final int SEEDS = 8;
+
+	@Test
+	public void testReportsBetterSolutionsWithTighterBounds() {
+		int improvedSearches = 0;
+		for (long seed = 1; seed <= SEEDS; seed++) {
+			Puzzle puzzle = Puzzles.puzzle(Puzzles.scrambled(seed, 300));
+			int optimalCost = Puzzles.engine(puzzle, SearchStrategy.A_STAR)
+					.solve().getCost();
+			List<Integer> costs = new ArrayList<>();
+			List<Double> bounds = new ArrayList<>();
+			GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+					.engine(puzzle, SearchStrategy.ARA_STAR)
+					.withHeuristicWeight(5).withWeightDecrement(0.5)
+					.onImprovedSolution((improved, bound) -> {
+						costs.add(improved.getCost());
+						bounds.add(bound);
+					}).solve();
+
+			assertTrue(solution.isSuccess());
+			assertEquals(optimalCost, solution.getCost());
+			assertEquals(optimalCost, (int) costs.get(costs.size() - 1));
+			for (int i = 0; i < costs.size(); i++) {
+				assertTrue(costs.get(i) <= bounds.get(i) * optimalCost);
+				if (i > 0) {
+					assertTrue(costs.get(i) < costs.get(i - 1));
+					assertTrue(bounds.get(i) <= bounds.get(i - 1));
+				}
+			}
+			if (costs.size() > 1) {
+				improvedSearches++;
+			}
+			Puzzles.assertPathIsValid(puzzle, solution);
+		}
+		// IMPORTANT: otherwise the order above was never checked
+		assertTrue(improvedSearches > 0);
+	}
+
+	@Test
+	public void testWeightedAStarWithoutWeightIsOptimal() {
+		for (long seed = 1; seed <= SEEDS; seed++) {
+			Puzzle puzzle = Puzzles.puzzle(Puzzles.scrambled(seed, 300));
+			GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+					.engine(puzzle, SearchStrategy.WEIGHTED_A_STAR)
+					.withHeuristicWeight(1).solve();
+
+			assertEquals(Puzzles.engine(puzzle, SearchStrategy.A_STAR)
+					.solve().getCost(), solution.getCost());
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+import ar.itba.edu.sia.tp1.gps.GPSProblem;
+
+public class BatchSolverTest {
+	private static final long DELAY_MILLIS = 20;
+
+	private final AtomicInteger builtEngines = new AtomicInteger();
+
+	@Test
+	public void testReturnsResultsInCompletionOrder() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CountDownLatch firstTaken = new CountDownLatch(1);
+			Puzzle slow = Puzzles.puzzle(Puzzles.scrambled(1, 300));
+			Puzzle fast = Puzzles.puzzle(Puzzles.scrambled(2, 300));
+			Iterator<BatchResult<PuzzleRule, PuzzleState>> results = new BatchSolver<PuzzleRule, PuzzleState>(
+					problem -> {
+						if (problem == slow) {
+							await(firstTaken);
+						}
+						return Puzzles.engine(problem, SearchStrategy.A_STAR);
+					}, executor, 2).solve(Stream.of(slow, fast)).iterator();
+
+			BatchResult<PuzzleRule, PuzzleState> first = results.next();
+			firstTaken.countDown();
+			BatchResult<PuzzleRule, PuzzleState> second = results.next();
+
+			assertEquals(1, first.getIndex());
+			assertEquals(fast, first.getProblem());
+			assertEquals(0, second.getIndex());
+			assertEquals(slow, second.getProblem());
+			assertTrue(second.getSolution().isSuccess());
+			assertFalse(results.hasNext());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testOnlyPullsProblemsAsResultsAreTaken() {
+		AtomicInteger pulled = new AtomicInteger();
+		AtomicInteger taken = new AtomicInteger();
+		AtomicInteger maxAhead = new AtomicInteger();
+		Stream<Puzzle> problems = IntStream.range(0, 10).mapToObj(
+				seed -> {
+					maxAhead.accumulateAndGet(pulled.incrementAndGet()
+							- taken.get(), Math::max);
+					return Puzzles.puzzle(Puzzles.scrambled(seed, 20));
+				});
+		Stream<BatchResult<PuzzleRule, PuzzleState>> results = new BatchSolver<PuzzleRule, PuzzleState>(
+				this::engine, Runnable::run, 3).solve(problems);
+		assertEquals(0, pulled.get());
+
+		results.forEach(result -> taken.incrementAndGet());
+
+		assertEquals(10, taken.get());
+		assertEquals(3, maxAhead.get());
+	}
+
+	@Test
+	public void testMeasuresQueueAndSolveTimes() {
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		try {
+			List<BatchResult<PuzzleRule, PuzzleState>> results = new BatchSolver<PuzzleRule, PuzzleState>(
+					problem -> {
+						sleep(DELAY_MILLIS);
+						return engine(problem);
+					}, executor, 2).solve(
+					Stream.of(Puzzles.puzzle(Puzzles.scrambled(1, 20)),
+							Puzzles.puzzle(Puzzles.scrambled(2, 20))))
+					.collect(Collectors.toList());
+
+			Duration delay = Duration.ofMillis(DELAY_MILLIS);
+			for (BatchResult<PuzzleRule, PuzzleState> result : results) {
+				assertTrue(result.getSolveTime().compareTo(delay) >= 0);
+				// IMPORTANT: the second one waits for the first to be solved
+				if (result.getIndex() == 1) {
+					assertTrue(result.getQueueTime().compareTo(delay) >= 0);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testClosingCancelsThePendingProblems() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			Stream<BatchResult<PuzzleRule, PuzzleState>> stream = new BatchSolver<PuzzleRule, PuzzleState>(
+					problem -> problem.getInitialState().equals(unsolvable()) ? slowEngine(
+							engine(problem), started) : engine(problem),
+					executor, 3).solve(Stream.of(
+					Puzzles.puzzle(Puzzles.scrambled(1, 20)),
+					Puzzles.puzzle(unsolvable()),
+					Puzzles.puzzle(unsolvable())));
+			assertEquals(0, stream.iterator().next().getIndex());
+			started.await();
+			stream.close();
+
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+			// IMPORTANT: the last one was never started
+			assertEquals(2, builtEngines.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testFailureCancelsTheRestOfTheBatch() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			Puzzle broken = Puzzles.puzzle(Puzzles.scrambled(1, 20));
+			Iterator<BatchResult<PuzzleRule, PuzzleState>> results = new BatchSolver<PuzzleRule, PuzzleState>(
+					problem -> {
+						if (problem == broken) {
+							await(started);
+							throw new IllegalArgumentException("Broken");
+						}
+						return slowEngine(engine(problem), started);
+					}, executor, 2).solve(
+					Stream.of(broken, Puzzles.puzzle(unsolvable())))
+					.iterator();
+
+			try {
+				results.next();
+				fail();
+			} catch (IllegalStateException e) {
+				assertEquals(IllegalArgumentException.class, e.getCause()
+						.getClass());
+			}
+			assertFalse(results.hasNext());
+
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private GPSEngine<PuzzleRule, PuzzleState> engine(
+			GPSProblem<PuzzleRule, PuzzleState> problem) {
+		builtEngines.incrementAndGet();
+		return Puzzles.engine(problem, SearchStrategy.A_STAR);
+	}
+
+	/**
+	 * Slows the engine down so that, on an unsolvable puzzle, it takes
+	 * minutes to give up unless it is cancelled.
+	 */
+	private static GPSEngine<PuzzleRule, PuzzleState> slowEngine(
+			GPSEngine<PuzzleRule, PuzzleState> engine, CountDownLatch started) {
+		return engine.withSearchListener(
+				new SearchListener<PuzzleRule, PuzzleState>() {
+					@Override
+					public void onNodeExpanded(
+							GPSNode<PuzzleRule, PuzzleState> node,
+							boolean reExpansion) {
+						started.countDown();
+						sleep(1);
+					}
+				});
+	}
+
+	private static PuzzleState unsolvable() {
+		return new PuzzleState(new int[][] { { 2, 1, 3 }, { 4, 5, 6 },
+				{ 7, 8, PuzzleState.BLANK } });
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class BeamSolutionProcessTest {
+	private static final int MAX_DEPTH = 40320;
+	private static final int SEEDS = 6;
+
+	@Test
+	public void testNeverKeepsMoreNodesThanTheWidth() {
+		for (int width : new int[] { 1, 3, 20 }) {
+			LayerSizes layers = new LayerSizes();
+			// NOTE: unsolvable, so that every layer up to the limit is kept
+			new BeamSolutionProcess<>(Puzzles.puzzle(new PuzzleState(
+					new int[][] { { 2, 1, 3 }, { 4, 5, 6 },
+							{ 7, 8, PuzzleState.BLANK } })), 60, width, 1,
+					layers).solve();
+
+			assertEquals(1, (int) layers.sizes.get(0));
+			for (int depth = 1; depth < 60; depth++) {
+				assertTrue(layers.sizes.getOrDefault(depth, 0) <= width);
+			}
+			// IMPORTANT: otherwise the width was never reached
+			assertTrue(layers.sizes.containsValue(width));
+		}
+	}
+
+	@Test
+	public void testFindsTheSamePathWithMoreWorkers() {
+		int solved = 0;
+		for (long seed = 1; seed <= SEEDS; seed++) {
+			Puzzle puzzle = Puzzles.puzzle(Puzzles.scrambled(seed, 300));
+			GPSSolution<PuzzleRule, PuzzleState> expected = solve(puzzle, 1);
+			GPSSolution<PuzzleRule, PuzzleState> solution = solve(puzzle, 4);
+
+			assertEquals(expected.isSuccess(), solution.isSuccess());
+			assertEquals(expected.getExplosionCount(),
+					solution.getExplosionCount());
+			if (expected.isSuccess()) {
+				assertEquals(states(expected), states(solution));
+				Puzzles.assertPathIsValid(puzzle, solution);
+				solved++;
+			}
+		}
+		assertTrue(solved > 0);
+	}
+
+	private static GPSSolution<PuzzleRule, PuzzleState> solve(Puzzle puzzle,
+			int workers) {
+		return new BeamSolutionProcess<>(puzzle, MAX_DEPTH, 50, workers,
+				SearchBudget.<PuzzleRule, PuzzleState> unlimited()).solve();
+	}
+
+	private static List<PuzzleState> states(
+			GPSSolution<PuzzleRule, PuzzleState> solution) {
+		List<PuzzleState> states = new ArrayList<>();
+		for (GPSNode<PuzzleRule, PuzzleState> node : solution.getPath()) {
+			states.add(node.getState());
+		}
+		return states;
+	}
+
+	/**
+	 * Counts the nodes of each layer, as each node kept in the beam is
+	 * observed once.
+	 */
+	private static class LayerSizes extends SearchBudget<PuzzleRule, PuzzleState> {
+		private final Map<Integer, Integer> sizes = new HashMap<>();
+
+		private LayerSizes() {
+			super(UNLIMITED, UNLIMITED, UNLIMITED, null, CancellationToken.NONE);
+		}
+
+		@Override
+		void observe(GPSNode<PuzzleRule, PuzzleState> node) {
+			sizes.merge(node.getGValue(), 1, Integer::sum);
+			super.observe(node);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class BidirectionalSolutionProcessTest {
+	private static final int SEEDS = 16;
+
+	@Test
+	public void testAStarFindsOptimalCostWithFewerExplosions() {
+		long explosions = 0;
+		long bidirectionalExplosions = 0;
+		for (long seed = 0; seed < SEEDS; seed++) {
+			Puzzle puzzle = Puzzles.puzzle(Puzzles.scrambled(seed, 300));
+			GPSSolution<PuzzleRule, PuzzleState> expected = Puzzles.engine(
+					puzzle, SearchStrategy.A_STAR).solve();
+			GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+					.engine(puzzle, SearchStrategy.A_STAR).bidirectional()
+					.solve();
+
+			assertTrue(solution.isSuccess());
+			assertEquals(expected.getCost(), solution.getCost());
+			Puzzles.assertPathIsValid(puzzle, solution);
+			explosions += expected.getExplosionCount();
+			bidirectionalExplosions += solution.getExplosionCount();
+		}
+		// NOTE: not on every puzzle, front-to-end searches may pass each
+		// other, but by far on the hardest ones
+		assertTrue(bidirectionalExplosions < explosions * 3 / 4);
+	}
+
+	@Test
+	public void testBFSFindsOptimalCostWithFewerExplosions() {
+		for (long seed : new long[] { 3, 14 }) {
+			Puzzle puzzle = Puzzles.puzzle(Puzzles.scrambled(seed, 300));
+			GPSSolution<PuzzleRule, PuzzleState> expected = Puzzles.engine(
+					puzzle, SearchStrategy.BFS).solve();
+			GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+					.engine(puzzle, SearchStrategy.BFS).bidirectional()
+					.solve();
+			GPSSolution<PuzzleRule, PuzzleState> aStar = Puzzles
+					.engine(puzzle, SearchStrategy.A_STAR).bidirectional()
+					.solve();
+
+			assertEquals(expected.getCost(), solution.getCost());
+			assertEquals(expected.getCost(), aStar.getCost());
+			Puzzles.assertPathIsValid(puzzle, solution);
+			assertTrue(solution.getExplosionCount() * 10 < expected
+					.getExplosionCount());
+			assertTrue(aStar.getExplosionCount() < solution
+					.getExplosionCount());
+		}
+	}
+
+	@Test
+	public void testStopsOnceOneSideRunsOut() {
+		// IMPORTANT: two tiles swapped, the goal can't be reached
+		Puzzle puzzle = Puzzles.puzzle(new PuzzleState(new int[][] {
+				{ 2, 1, 3 }, { 4, 5, 6 }, { 7, 8, PuzzleState.BLANK } }));
+		GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+				.engine(puzzle, SearchStrategy.BFS).bidirectional().solve();
+
+		assertTrue(solution.isFailure());
+		// NOTE: half of the 9! boards are reachable from each side
+		assertTrue(solution.getExplosionCount() < 2 * 181440);
+	}
+}
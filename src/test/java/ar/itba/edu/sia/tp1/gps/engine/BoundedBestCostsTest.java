@@ -0,0 +1,58 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.gps.KeyState;
+
+public class BoundedBestCostsTest {
+	@Test
+	public void testKeepsBestCosts() {
+		BoundedBestCosts<KeyState> bestCosts = new BoundedBestCosts<>(1024);
+		bestCosts.updateBestCost(new KeyState(7), 5);
+
+		assertTrue(bestCosts.contains(new KeyState(7)));
+		assertFalse(bestCosts.contains(new KeyState(8)));
+		assertFalse(bestCosts.isBetterThanCurrentBest(new KeyState(7), 5));
+		assertTrue(bestCosts.isBetterThanCurrentBest(new KeyState(7), 4));
+		assertTrue(bestCosts.isBetterThanCurrentBest(new KeyState(8), 100));
+
+		bestCosts.updateBestCost(new KeyState(7), 3);
+		assertFalse(bestCosts.isBetterThanCurrentBest(new KeyState(7), 4));
+		assertEquals(1, bestCosts.size());
+	}
+
+	@Test
+	public void testNeverGrowsPastCapacity() {
+		BoundedBestCosts<KeyState> bestCosts = new BoundedBestCosts<>(100);
+		for (long key = 0; key < 10000; key++) {
+			bestCosts.updateBestCost(new KeyState(key), (int) (key % 13));
+		}
+
+		assertEquals(64, bestCosts.capacity());
+		assertTrue(bestCosts.size() <= bestCosts.capacity());
+		assertEquals(10000 - bestCosts.size(), bestCosts.getEvictions());
+	}
+
+	@Test
+	public void testKeepsClosestToRootAndMostRecent() {
+		// IMPORTANT: a single bucket, every key collides
+		BoundedBestCosts<KeyState> bestCosts = new BoundedBestCosts<>(2);
+		bestCosts.updateBestCost(new KeyState(1), 1);
+		bestCosts.updateBestCost(new KeyState(2), 4);
+		bestCosts.updateBestCost(new KeyState(3), 6);
+
+		assertTrue(bestCosts.contains(new KeyState(1)));
+		assertFalse(bestCosts.contains(new KeyState(2)));
+		assertTrue(bestCosts.contains(new KeyState(3)));
+
+		bestCosts.updateBestCost(new KeyState(4), 0);
+		assertTrue(bestCosts.contains(new KeyState(4)));
+		assertTrue(bestCosts.contains(new KeyState(1)));
+		assertFalse(bestCosts.contains(new KeyState(3)));
+		assertEquals(2, bestCosts.size());
+	}
+}
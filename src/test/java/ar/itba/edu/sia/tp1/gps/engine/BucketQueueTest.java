@@ -0,0 +1,54 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Queue;
+
+import org.junit.Test;
+
+public class BucketQueueTest {
+	@Test
+	public void testPollsLowestPriorityFirst() {
+		Queue<Integer> queue = new BucketQueue<>(value -> value);
+		for (int value : Arrays.asList(5, 3, 40, -2, 3, 0)) {
+			queue.add(value);
+		}
+
+		assertEquals(6, queue.size());
+		for (int expected : Arrays.asList(-2, 0, 3, 3, 5, 40)) {
+			assertEquals(expected, queue.poll().intValue());
+		}
+		assertTrue(queue.isEmpty());
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void testKeepsInsertionOrderWithinPriority() {
+		Queue<String> queue = new BucketQueue<>(String::length);
+		queue.add("b");
+		queue.add("aa");
+		queue.add("a");
+		queue.add("c");
+
+		assertEquals("b", queue.poll());
+		assertEquals("a", queue.poll());
+		assertEquals("c", queue.poll());
+		assertEquals("aa", queue.poll());
+	}
+
+	@Test
+	public void testInsertionBelowCurrentMinimum() {
+		Queue<Integer> queue = new BucketQueue<>(value -> value);
+		queue.add(10);
+		queue.add(12);
+		assertEquals(10, queue.poll().intValue());
+
+		queue.add(4);
+		assertEquals(4, queue.peek().intValue());
+		assertEquals(4, queue.poll().intValue());
+		assertEquals(12, queue.poll().intValue());
+	}
+}
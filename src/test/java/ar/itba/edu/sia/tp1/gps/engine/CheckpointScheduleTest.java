@@ -0,0 +1,36 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+public class CheckpointScheduleTest {
+	private static final long INTERVAL = 10;
+
+	private final CheckpointSchedule schedule = new CheckpointSchedule(
+			Paths.get("checkpoint.bin"), INTERVAL);
+
+	@Test
+	public void testIsDueEveryInterval() {
+		assertFalse(schedule.isDue(9, 0));
+		assertTrue(schedule.isDue(10, 0));
+		assertFalse(schedule.isDue(11, 10));
+	}
+
+	@Test
+	public void testIsDueOnceWhenRequested() {
+		schedule.request();
+		assertTrue(schedule.isDue(1, 0));
+		assertFalse(schedule.isDue(2, 1));
+	}
+
+	@Test
+	public void testRequestIsConsumedByADueInterval() {
+		schedule.request();
+		assertTrue(schedule.isDue(10, 0));
+		assertFalse(schedule.isDue(11, 10));
+	}
+}
@@ -0,0 +1,84 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class CompactNodeSolutionProcessTest {
+	@Test
+	public void testAStarMatchesRegularProcess() {
+		for (long seed : new long[] { 1, 2, 3, 4 }) {
+			Puzzle puzzle = Puzzles.puzzle(Puzzles.scrambled(seed, 300));
+			GPSSolution<PuzzleRule, PuzzleState> expected = Puzzles.engine(
+					puzzle, SearchStrategy.A_STAR).solve();
+			GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+					.engine(puzzle, SearchStrategy.A_STAR).withCompactNodes()
+					.solve();
+
+			assertTrue(solution.isSuccess());
+			assertEquals(expected.getCost(), solution.getCost());
+			assertEquals(expected.getExplosionCount(),
+					solution.getExplosionCount());
+			Puzzles.assertPathIsValid(puzzle, solution);
+		}
+	}
+
+	@Test
+	public void testGreedyFindsValidPath() {
+		Puzzle puzzle = Puzzles.puzzle(Puzzles.scrambled(5, 300));
+		GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+				.engine(puzzle, SearchStrategy.GREEDY).withCompactNodes()
+				.solve();
+
+		assertTrue(solution.isSuccess());
+		Puzzles.assertPathIsValid(puzzle, solution);
+	}
+
+	@Test
+	public void testRebuildsStatesFarFromTheRoot() {
+		Puzzle puzzle = Puzzles.puzzle(Puzzles.scrambled(0, 0));
+		List<PuzzleRule> rules = puzzle.getRules();
+		NodeStore<PuzzleRule, PuzzleState> store = new NodeStore<>(rules);
+		List<PuzzleState> states = new ArrayList<>();
+
+		// IMPORTANT: a single long branch, with a sibling wherever the
+		// branch would get a checkpoint by its order, so only the ones
+		// forced by the replay length are left in it
+		Random random = new Random(0);
+		PuzzleState state = puzzle.getInitialState();
+		int node = store.addRoot(state, 0);
+		states.add(state);
+		for (int depth = 1; depth < 500; depth++) {
+			int ruleIndex;
+			PuzzleState next;
+			do {
+				ruleIndex = random.nextInt(rules.size());
+				next = state.apply(rules.get(ruleIndex)).orElse(null);
+			} while (next == null);
+			if (store.size() % 8 == 0) {
+				store.add(node, ruleIndex, depth, 0, next.getCompactKey(),
+						next);
+				states.add(next);
+			}
+			node = store.add(node, ruleIndex, depth, 0, next.getCompactKey(),
+					next);
+			states.add(next);
+			state = next;
+		}
+
+		for (int i = 0; i < store.size(); i++) {
+			assertEquals(states.get(i), store.getState(i));
+			assertEquals(states.get(i).getCompactKey(), store.getKey(i));
+		}
+		assertEquals(state, store.toGPSNode(node).getState());
+	}
+}
@@ -0,0 +1,58 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class ExternalSolutionProcessTest {
+	// IMPORTANT: small enough to spill several times per bucket
+	private static final int MAX_BUFFERED_NODES = 10;
+
+	@Test
+	public void testAStarFindsOptimalCostWhileSpilling() throws IOException {
+		for (long seed : new long[] { 1, 3, 7 }) {
+			assertSameCost(Puzzles.puzzle(Puzzles.scrambled(seed, 300)),
+					SearchStrategy.A_STAR);
+		}
+	}
+
+	@Test
+	public void testBFSFindsOptimalCostWhileSpilling() throws IOException {
+		assertSameCost(Puzzles.puzzle(Puzzles.scrambled(5, 80)),
+				SearchStrategy.BFS);
+	}
+
+	private void assertSameCost(Puzzle puzzle, SearchStrategy strategy)
+			throws IOException {
+		GPSSolution<PuzzleRule, PuzzleState> expected = Puzzles.engine(
+				puzzle, SearchStrategy.A_STAR).solve();
+
+		Path spillDirectory = Files.createTempDirectory("gps-test");
+		try {
+			GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+					.engine(puzzle, strategy)
+					.withExternalFrontier(spillDirectory, MAX_BUFFERED_NODES)
+					.solve();
+
+			assertTrue(solution.isSuccess());
+			assertEquals(expected.getCost(), solution.getCost());
+			Puzzles.assertPathIsValid(puzzle, solution);
+			try (Stream<Path> files = Files.list(spillDirectory)) {
+				assertFalse(files.findAny().isPresent());
+			}
+		} finally {
+			Files.delete(spillDirectory);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class GPSEngineTest {
+	@Test
+	public void testSolvesAsynchronously() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		try {
+			GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+					.engine(Puzzles.puzzle(Puzzles.scrambled(1, 300)),
+							SearchStrategy.A_STAR).solveAsync(executor).get();
+
+			assertTrue(solution.isSuccess());
+			assertFalse(solution.isTruncated());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testCancellingTheFutureStopsTheSearch() throws Exception {
+		assertStopsTheSearch(future -> future.cancel(true));
+	}
+
+	@Test(timeout = 10000)
+	public void testCompletingTheFutureExceptionallyStopsTheSearch()
+			throws Exception {
+		assertStopsTheSearch(future -> future
+				.completeExceptionally(new IllegalStateException("Timeout")));
+	}
+
+	@Test(timeout = 10000)
+	public void testStoppedSearchesLeaveTheEngineAsItWas() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		try {
+			GPSEngine<PuzzleRule, PuzzleState> engine = Puzzles.engine(
+					Puzzles.puzzle(Puzzles.scrambled(1, 300)),
+					SearchStrategy.A_STAR);
+			CompletableFuture<GPSSolution<PuzzleRule, PuzzleState>> future = engine
+					.solveAsync(command -> {
+						// NOTE: never run
+					});
+			future.cancel(true);
+
+			GPSSolution<PuzzleRule, PuzzleState> solution = engine
+					.solveAsync(executor).get();
+			assertTrue(solution.isSuccess());
+			assertFalse(solution.isTruncated());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void assertStopsTheSearch(
+			Consumer<CompletableFuture<GPSSolution<PuzzleRule, PuzzleState>>> stop)
+			throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			// IMPORTANT: unsolvable and slowed down, so it takes minutes
+			// unless it is cancelled
+			CompletableFuture<GPSSolution<PuzzleRule, PuzzleState>> future = Puzzles
+					.engine(Puzzles.puzzle(new PuzzleState(new int[][] {
+							{ 2, 1, 3 }, { 4, 5, 6 },
+							{ 7, 8, PuzzleState.BLANK } })),
+							SearchStrategy.BFS)
+					.withSearchListener(
+							new SearchListener<PuzzleRule, PuzzleState>() {
+								@Override
+								public void onNodeExpanded(
+										GPSNode<PuzzleRule, PuzzleState> node,
+										boolean reExpansion) {
+									started.countDown();
+									try {
+										Thread.sleep(1);
+									} catch (InterruptedException e) {
+										Thread.currentThread().interrupt();
+									}
+								}
+							}).solveAsync(executor);
+			started.await();
+			stop.accept(future);
+
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class GPSSolutionProcessTest {
+	private static final int SEEDS = 8;
+
+	@Test
+	public void testDeferredHeuristicKeepsAStarOptimal() {
+		for (long seed = 1; seed <= SEEDS; seed++) {
+			Puzzle puzzle = Puzzles.puzzle(Puzzles.scrambled(seed, 300));
+			GPSSolution<PuzzleRule, PuzzleState> expected = Puzzles.engine(
+					puzzle, SearchStrategy.A_STAR).solve();
+			GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+					.engine(puzzle, SearchStrategy.A_STAR)
+					.withDeferredHeuristic().solve();
+
+			assertTrue(solution.isSuccess());
+			assertEquals(expected.getCost(), solution.getCost());
+			Puzzles.assertPathIsValid(puzzle, solution);
+		}
+	}
+
+	@Test
+	public void testDeferredHeuristicOnlyExpandsEvaluatedNodesInOrder() {
+		ExpandedNodes expanded = new ExpandedNodes();
+		Puzzles.engine(Puzzles.puzzle(Puzzles.scrambled(3, 300)),
+				SearchStrategy.A_STAR).withDeferredHeuristic()
+				.withSearchListener(expanded).solve();
+
+		// IMPORTANT: otherwise no node had to be queued again
+		assertTrue(expanded.reQueued > 0);
+	}
+
+	/**
+	 * Checks that every expanded node has its actual h value and that, as
+	 * the Manhattan distance is consistent, f never decreases: a node whose
+	 * estimate was too low has to be queued again instead of expanded.
+	 */
+	private static class ExpandedNodes implements
+			SearchListener<PuzzleRule, PuzzleState> {
+		private int lastFValue = 0;
+		private int reQueued = 0;
+
+		@Override
+		public void onNodeExpanded(GPSNode<PuzzleRule, PuzzleState> node,
+				boolean reExpansion) {
+			assertFalse(node.isHValueDeferred());
+			assertEquals(Puzzles.manhattan(node.getState()), node.getHValue());
+			assertTrue(node.getFValue() >= lastFValue);
+			lastFValue = node.getFValue();
+
+			GPSNode<PuzzleRule, PuzzleState> parent = node.getParent();
+			if (parent != null
+					&& node.getHValue() != parent.getHValue()
+							- node.getRule().getCost()) {
+				reQueued++;
+			}
+		}
+	}
+}
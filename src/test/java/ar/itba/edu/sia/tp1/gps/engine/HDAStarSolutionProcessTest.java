@@ -0,0 +1,36 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class HDAStarSolutionProcessTest {
+	@Test
+	public void testFindsOptimalCost() {
+		PuzzleState initialState = Puzzles.scrambled(11, 300);
+		GPSSolution<PuzzleRule, PuzzleState> expected = Puzzles.engine(
+				Puzzles.puzzle(initialState), SearchStrategy.A_STAR).solve();
+		GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+				.engine(Puzzles.puzzle(initialState), SearchStrategy.A_STAR)
+				.withWorkers(3).solve();
+
+		assertEquals(expected.getCost(), solution.getCost());
+	}
+
+	@Test(timeout = 10000, expected = IllegalStateException.class)
+	public void testFailsWhenAWorkerThrows() {
+		AtomicInteger calls = new AtomicInteger();
+		PuzzleState initialState = Puzzles.scrambled(11, 300);
+		Puzzles.engine(Puzzles.puzzle(initialState, state -> {
+			if (calls.incrementAndGet() == 500) {
+				throw new IllegalArgumentException("Broken heuristic");
+			}
+			return Puzzles.manhattan(state);
+		}), SearchStrategy.A_STAR).withWorkers(3).solve();
+	}
+}
@@ -0,0 +1,46 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class IDAStarSolutionProcessTest {
+	private static final int SEEDS = 6;
+
+	@Test
+	public void testFindsOptimalSolutions() {
+		for (long seed = 1; seed <= SEEDS; seed++) {
+			assertOptimal(Puzzles.puzzle(Puzzles.scrambled(seed, 300)), 0);
+		}
+	}
+
+	@Test
+	public void testFindsOptimalSolutionsWithATranspositionTable() {
+		for (long seed = 1; seed <= SEEDS; seed++) {
+			Puzzle puzzle = Puzzles.puzzle(Puzzles.scrambled(seed, 300));
+			assertOptimal(puzzle, 1 << 16);
+			// NOTE: a table too small for the search still drops entries
+			assertOptimal(puzzle, 64);
+		}
+	}
+
+	private void assertOptimal(Puzzle puzzle, int transpositionTableCapacity) {
+		GPSSolution<PuzzleRule, PuzzleState> expected = Puzzles.engine(puzzle,
+				SearchStrategy.A_STAR).solve();
+		GPSEngine<PuzzleRule, PuzzleState> engine = Puzzles.engine(puzzle,
+				SearchStrategy.IDA_STAR);
+		if (transpositionTableCapacity > 0) {
+			engine.withTranspositionTable(transpositionTableCapacity);
+		}
+		GPSSolution<PuzzleRule, PuzzleState> solution = engine.solve();
+
+		assertTrue(solution.isSuccess());
+		assertEquals(expected.getCost(), solution.getCost());
+		Puzzles.assertPathIsValid(puzzle, solution);
+	}
+}
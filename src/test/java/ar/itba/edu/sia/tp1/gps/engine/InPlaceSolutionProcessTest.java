@@ -0,0 +1,118 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.calcudoku.CalcudokuProblem;
+import ar.itba.edu.sia.tp1.calcudoku.CalcudokuRule;
+import ar.itba.edu.sia.tp1.calcudoku.CalcudokuState;
+import ar.itba.edu.sia.tp1.calcudoku.domain.Boards;
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class InPlaceSolutionProcessTest {
+	private static final int MAX_DEPTH = 40320;
+
+	@Test
+	public void testMatchesRegularDFS() {
+		assertMatchesRegularProcess(Puzzles.scrambled(1, 300),
+				SearchStrategy.DFS);
+	}
+
+	@Test
+	public void testMatchesRegularIDDFS() {
+		for (long seed : new long[] { 1, 2, 3 }) {
+			assertMatchesRegularProcess(Puzzles.scrambled(seed, 12),
+					SearchStrategy.IDDFS);
+		}
+	}
+
+	@Test
+	public void testMatchesRegularProcessOnCalcudoku() {
+		for (long seed = 0; seed < 5; seed++) {
+			CalcudokuProblem problem = new CalcudokuProblem(Boards.random(3,
+					seed));
+			for (SearchStrategy strategy : new SearchStrategy[] {
+					SearchStrategy.DFS, SearchStrategy.IDDFS }) {
+				GPSSolution<CalcudokuRule, CalcudokuState> expected = new GPSEngine<CalcudokuRule, CalcudokuState>(
+						problem, strategy, MAX_DEPTH) {
+				}.solve();
+				GPSSolution<CalcudokuRule, CalcudokuState> solution = new GPSEngine<CalcudokuRule, CalcudokuState>(
+						problem, strategy, MAX_DEPTH) {
+				}.withInPlaceStates().solve();
+
+				assertEquals(expected.isSuccess(), solution.isSuccess());
+				assertEquals(expected.getExplosionCount(),
+						solution.getExplosionCount());
+				assertEquals(expected.getAnalyzedNodes(),
+						solution.getAnalyzedNodes());
+			}
+		}
+	}
+
+	@Test
+	public void testStartsEveryIterationFromTheInitialState() {
+		PuzzleState initialState = Puzzles.scrambled(2, 12);
+		List<Integer> iterationStarts = new ArrayList<>();
+		AnalyzedStates regular = new AnalyzedStates(initialState);
+		Puzzles.engine(regular, SearchStrategy.IDDFS)
+				.withSearchListener(new SearchListener<PuzzleRule, PuzzleState>() {
+					@Override
+					public void onIterationStart(int depthLimit) {
+						iterationStarts.add(regular.keys.size());
+					}
+				}).solve();
+		AnalyzedStates inPlace = new AnalyzedStates(initialState);
+		Puzzles.engine(inPlace, SearchStrategy.IDDFS).withInPlaceStates()
+				.solve();
+
+		assertTrue(iterationStarts.size() > 1);
+		for (int start : iterationStarts) {
+			assertEquals((Long) initialState.getCompactKey(),
+					inPlace.keys.get(start));
+		}
+	}
+
+	private void assertMatchesRegularProcess(PuzzleState initialState,
+			SearchStrategy strategy) {
+		AnalyzedStates regular = new AnalyzedStates(initialState);
+		GPSSolution<PuzzleRule, PuzzleState> expected = Puzzles.engine(
+				regular, strategy).solve();
+		AnalyzedStates inPlace = new AnalyzedStates(initialState);
+		GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+				.engine(inPlace, strategy).withInPlaceStates().solve();
+
+		assertTrue(solution.isSuccess());
+		assertEquals(expected.getCost(), solution.getCost());
+		assertEquals(expected.getExplosionCount(),
+				solution.getExplosionCount());
+		assertEquals(expected.getAnalyzedNodes(), solution.getAnalyzedNodes());
+		// IMPORTANT: the very same states, in the same order
+		assertEquals(regular.keys, inPlace.keys);
+		Puzzles.assertPathIsValid(inPlace, solution);
+	}
+
+	/**
+	 * Remembers the compact key of every state it is asked about, as the
+	 * in place states change right after.
+	 */
+	private static class AnalyzedStates extends Puzzle {
+		private final List<Long> keys = new ArrayList<>();
+
+		private AnalyzedStates(PuzzleState initialState) {
+			super(() -> initialState, Puzzles::manhattan);
+		}
+
+		@Override
+		public boolean isGoal(PuzzleState state) {
+			keys.add(state.getCompactKey());
+			return super.isGoal(state);
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class LayeredBFSSolutionProcessTest {
+	@Test
+	public void testPathDoesNotDependOnWorkers() {
+		PuzzleState initialState = Puzzles.scrambled(3, 300);
+		GPSSolution<PuzzleRule, PuzzleState> expected = Puzzles.engine(
+				Puzzles.puzzle(initialState), SearchStrategy.BFS).solve();
+		List<PuzzleState> path = statesOf(solve(initialState, 1));
+
+		assertEquals(expected.getCost(), solve(initialState, 1).getCost());
+		for (int workers = 2; workers <= 4; workers++) {
+			for (int run = 0; run < 3; run++) {
+				assertEquals(path, statesOf(solve(initialState, workers)));
+			}
+		}
+	}
+
+	private GPSSolution<PuzzleRule, PuzzleState> solve(
+			PuzzleState initialState, int workers) {
+		return Puzzles.engine(Puzzles.puzzle(initialState),
+				SearchStrategy.BFS).withWorkers(workers).solve();
+	}
+
+	private List<PuzzleState> statesOf(
+			GPSSolution<PuzzleRule, PuzzleState> solution) {
+		List<PuzzleState> states = new ArrayList<>();
+		for (GPSNode<PuzzleRule, PuzzleState> node : solution.getPath()) {
+			states.add(node.getState());
+		}
+		return states;
+	}
+}
@@ -0,0 +1,89 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class PortfolioSolverTest {
+	private final PuzzleState initialState = Puzzles.scrambled(2, 300);
+
+	@Test
+	public void testSkipsFailedEngines() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Optional<BatchResult<PuzzleRule, PuzzleState>> result = new PortfolioSolver<PuzzleRule, PuzzleState>(
+					executor).add(brokenEngine(), true)
+					.add(engine(), true).solve();
+
+			assertTrue(result.isPresent());
+			assertEquals(1, result.get().getIndex());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFailsWhenEveryEngineFails() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			new PortfolioSolver<PuzzleRule, PuzzleState>(executor)
+					.add(brokenEngine(), true).add(brokenEngine(), true)
+					.solve();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testLeavesEnginesAsTheyWere() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			GPSEngine<PuzzleRule, PuzzleState> loser = engine();
+			new PortfolioSolver<PuzzleRule, PuzzleState>(executor)
+					.add(engine(), true).add(loser, true).solve();
+
+			GPSSolution<PuzzleRule, PuzzleState> solution = loser.solve();
+			assertTrue(solution.isSuccess());
+			assertFalse(solution.isTruncated());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testEnginesCanBeCancelledFromOutside() {
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		try {
+			CancellationToken token = new CancellationToken();
+			token.cancel();
+
+			assertFalse(new PortfolioSolver<PuzzleRule, PuzzleState>(
+					executor).add(engine().withCancellationToken(token),
+					true).solve().isPresent());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private GPSEngine<PuzzleRule, PuzzleState> engine() {
+		return Puzzles.engine(Puzzles.puzzle(initialState),
+				SearchStrategy.A_STAR);
+	}
+
+	private GPSEngine<PuzzleRule, PuzzleState> brokenEngine() {
+		Puzzle puzzle = Puzzles.puzzle(initialState, state -> {
+			throw new IndexOutOfBoundsException();
+		});
+		return Puzzles.engine(puzzle, SearchStrategy.A_STAR);
+	}
+}
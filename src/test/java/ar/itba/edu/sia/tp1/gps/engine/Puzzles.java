@@ -0,0 +1,93 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+import java.util.Random;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.Direction;
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+import ar.itba.edu.sia.tp1.gps.GPSHeuristic;
+import ar.itba.edu.sia.tp1.gps.GPSProblem;
+
+/**
+ * 8-puzzles to run the engine on.
+ */
+final class Puzzles {
+	private static final int MAX_DEPTH = 40320;
+
+	private Puzzles() {
+	}
+
+	/**
+	 * @return the solved puzzle after the given number of random moves.
+	 */
+	static PuzzleState scrambled(long seed, int moves) {
+		Random random = new Random(seed);
+		PuzzleState state = new PuzzleState(new int[][] { { 1, 2, 3 },
+				{ 4, 5, 6 }, { 7, 8, PuzzleState.BLANK } });
+		Direction[] directions = Direction.values();
+		for (int i = 0; i < moves; i++) {
+			Optional<PuzzleState> next = state.apply(new PuzzleRule(
+					directions[random.nextInt(directions.length)]));
+			if (next.isPresent()) {
+				state = next.get();
+			}
+		}
+		return state;
+	}
+
+	static int manhattan(PuzzleState state) {
+		int[][] map = state.getMap();
+		int distance = 0;
+		for (int x = 0; x < PuzzleState.LENGTH; x++) {
+			for (int y = 0; y < PuzzleState.LENGTH; y++) {
+				int tile = map[x][y];
+				if (tile != PuzzleState.BLANK) {
+					distance += Math.abs((tile - 1) / PuzzleState.LENGTH - x)
+							+ Math.abs((tile - 1) % PuzzleState.LENGTH - y);
+				}
+			}
+		}
+		return distance;
+	}
+
+	static Puzzle puzzle(PuzzleState initialState) {
+		return puzzle(initialState, Puzzles::manhattan);
+	}
+
+	static Puzzle puzzle(PuzzleState initialState,
+			GPSHeuristic<PuzzleState> heuristic) {
+		return new Puzzle(() -> initialState, heuristic);
+	}
+
+	static GPSEngine<PuzzleRule, PuzzleState> engine(
+			GPSProblem<PuzzleRule, PuzzleState> problem,
+			SearchStrategy searchStrategy) {
+		return new GPSEngine<PuzzleRule, PuzzleState>(problem,
+				searchStrategy, MAX_DEPTH) {
+		};
+	}
+
+	/**
+	 * Asserts that each node of the solution follows from the previous one by
+	 * its rule, from the initial state to a goal.
+	 */
+	static void assertPathIsValid(Puzzle puzzle,
+			GPSSolution<PuzzleRule, PuzzleState> solution) {
+		PuzzleState state = null;
+		for (GPSNode<PuzzleRule, PuzzleState> node : solution.getPath()) {
+			if (state == null) {
+				assertEquals(puzzle.getInitialState(), node.getState());
+			} else {
+				assertEquals(state.apply(node.getRule()).get(),
+						node.getState());
+			}
+			state = node.getState();
+		}
+		assertTrue(puzzle.isGoal(state));
+	}
+}
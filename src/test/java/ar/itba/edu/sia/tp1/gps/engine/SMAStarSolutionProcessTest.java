@@ -0,0 +1,33 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class SMAStarSolutionProcessTest {
+	private static final int NODE_BUDGET = 400;
+
+	@Test
+	public void testFindsOptimalCostWhileForgetting() {
+		for (long seed : new long[] { 2, 5, 6, 10, 11 }) {
+			PuzzleState initialState = Puzzles.scrambled(seed, 300);
+			GPSSolution<PuzzleRule, PuzzleState> expected = Puzzles.engine(
+					Puzzles.puzzle(initialState), SearchStrategy.A_STAR)
+					.solve();
+			GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+					.engine(Puzzles.puzzle(initialState),
+							SearchStrategy.SMA_STAR)
+					.withNodeBudget(NODE_BUDGET).solve();
+
+			// IMPORTANT: the whole A* tree does not fit in the budget
+			assertTrue(expected.getCost() >= 20);
+			assertTrue(expected.getExplosionCount() > NODE_BUDGET);
+			assertTrue(solution.isSuccess());
+			assertEquals(expected.getCost(), solution.getCost());
+		}
+	}
+}
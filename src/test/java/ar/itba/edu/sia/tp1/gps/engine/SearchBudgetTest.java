@@ -0,0 +1,138 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class SearchBudgetTest {
+	private static final int MAX_EXPLOSIONS = 100;
+
+	private final Puzzle puzzle = Puzzles.puzzle(Puzzles.scrambled(2, 300));
+
+	@Test
+	public void testKeepsTheFirstNodeWithTheLowestH() {
+		SearchBudget<PuzzleRule, PuzzleState> budget = SearchBudget
+				.unlimited();
+		PuzzleState state = puzzle.getInitialState();
+		GPSNode<PuzzleRule, PuzzleState> lowest = new GPSNode<>(null, state,
+				0, 3);
+		budget.observe(new GPSNode<>(null, state, 0, 5));
+		budget.observe(lowest);
+		budget.observe(new GPSNode<>(null, state, 0, 3));
+		budget.observe(new GPSNode<>(null, state, 0, 4));
+
+		GPSSolution<PuzzleRule, PuzzleState> solution = budget.truncated(1, 4);
+		assertTrue(solution.isTruncated());
+		assertFalse(solution.isSuccess());
+		assertSame(lowest, solution.getBestNode().get());
+	}
+
+	@Test
+	public void testStopsAtMaxExplosions() {
+		LowestHListener listener = new LowestHListener();
+		GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+				.engine(puzzle, SearchStrategy.A_STAR)
+				.withMaxExplosions(MAX_EXPLOSIONS)
+				.withSearchListener(listener).solve();
+
+		assertTrue(solution.isTruncated());
+		assertFalse(solution.isSuccess());
+		assertEquals(MAX_EXPLOSIONS, solution.getExplosionCount());
+		// NOTE: the analyzed nodes that were not expanded were pruned, their
+		// states had been expanded before
+		assertEquals(listener.lowestHValue, solution.getBestNode().get()
+				.getHValue());
+	}
+
+	@Test
+	public void testStopsAtMaxGeneratedNodes() {
+		GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+				.engine(puzzle, SearchStrategy.BFS).withMaxGeneratedNodes(500)
+				.solve();
+
+		assertTrue(solution.isTruncated());
+		assertTrue(solution.getBestNode().isPresent());
+	}
+
+	@Test
+	public void testStopsAtMaxStoredNodes() {
+		for (SearchStrategy strategy : new SearchStrategy[] {
+				SearchStrategy.A_STAR, SearchStrategy.BFS,
+				SearchStrategy.ARA_STAR }) {
+			GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+					.engine(puzzle, strategy).withMaxStoredNodes(1000).solve();
+
+			assertTrue(strategy.name(), solution.isTruncated());
+			assertFalse(strategy.name(), solution.isSuccess());
+		}
+		GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+				.engine(puzzle, SearchStrategy.A_STAR).withCompactNodes()
+				.withMaxStoredNodes(1000).solve();
+		assertTrue(solution.isTruncated());
+	}
+
+	@Test
+	public void testStopsAtTimeLimit() {
+		GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+				.engine(puzzle, SearchStrategy.BFS)
+				.withTimeLimit(Duration.ZERO).solve();
+
+		assertTrue(solution.isTruncated());
+		assertEquals(0, solution.getExplosionCount());
+	}
+
+	@Test
+	public void testStopsOnceCancelled() {
+		CancellationToken token = new CancellationToken();
+		GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+				.engine(puzzle, SearchStrategy.A_STAR)
+				.withCancellationToken(token)
+				.withSearchListener(new SearchListener<PuzzleRule, PuzzleState>() {
+					private int expansions = 0;
+
+					@Override
+					public void onNodeExpanded(
+							GPSNode<PuzzleRule, PuzzleState> node,
+							boolean reExpansion) {
+						if (++expansions == MAX_EXPLOSIONS) {
+							token.cancel();
+						}
+					}
+				}).solve();
+
+		assertTrue(solution.isTruncated());
+		assertEquals(MAX_EXPLOSIONS, solution.getExplosionCount());
+	}
+
+	@Test
+	public void testSolvesWithinAGenerousBudget() {
+		GPSSolution<PuzzleRule, PuzzleState> solution = Puzzles
+				.engine(puzzle, SearchStrategy.A_STAR)
+				.withMaxExplosions(1000000).withMaxStoredNodes(1000000)
+				.withTimeLimit(Duration.ofMinutes(1)).solve();
+
+		assertFalse(solution.isTruncated());
+		assertTrue(solution.isSuccess());
+	}
+
+	private static class LowestHListener
+			implements
+				SearchListener<PuzzleRule, PuzzleState> {
+		private int lowestHValue = Integer.MAX_VALUE;
+
+		@Override
+		public void onNodeExpanded(GPSNode<PuzzleRule, PuzzleState> node,
+				boolean reExpansion) {
+			lowestHValue = Math.min(lowestHValue, node.getHValue());
+		}
+	}
+}
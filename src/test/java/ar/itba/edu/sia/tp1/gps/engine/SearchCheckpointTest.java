@@ -0,0 +1,108 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.Puzzle;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class SearchCheckpointTest {
+	private static final int INTERVAL = 50;
+	private static final int TABLE_CAPACITY = 64;
+
+	private final Puzzle puzzle = Puzzles.puzzle(Puzzles.scrambled(2, 300));
+
+	@Test
+	public void testResumesWhereTheCheckpointLeftIt() throws IOException {
+		GPSSolution<PuzzleRule, PuzzleState> expected = Puzzles.engine(
+				puzzle, SearchStrategy.A_STAR).solve();
+		Path file = Files.createTempFile("gps-checkpoint", ".bin");
+		try {
+			GPSSolution<PuzzleRule, PuzzleState> truncated = Puzzles
+					.engine(puzzle, SearchStrategy.A_STAR)
+					.withCheckpoints(file, INTERVAL)
+					.withMaxExplosions(expected.getExplosionCount() / 2)
+					.solve();
+			assertTrue(truncated.isTruncated());
+
+			GPSSolution<PuzzleRule, PuzzleState> resumed = Puzzles
+					.engine(puzzle, SearchStrategy.A_STAR).resumingFrom(file)
+					.solve();
+			assertTrue(resumed.isSuccess());
+			assertEquals(expected.getCost(), resumed.getCost());
+			assertEquals(expected.getExplosionCount(),
+					resumed.getExplosionCount());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testEverySolveWritesItsOwnCheckpoints() throws IOException {
+		Path file = Files.createTempFile("gps-checkpoint", ".bin");
+		try {
+			GPSEngine<PuzzleRule, PuzzleState> engine = Puzzles.engine(
+					puzzle, SearchStrategy.A_STAR).withCheckpoints(file,
+					INTERVAL);
+			assertTrue(engine.solve().getExplosionCount() > INTERVAL);
+			Files.delete(file);
+
+			engine.solve();
+			assertTrue(Files.exists(file));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testResumedSearchWaitsAWholeInterval() throws IOException {
+		Path file = Files.createTempFile("gps-checkpoint", ".bin");
+		Path resumedFile = Files.createTempFile("gps-checkpoint", ".bin");
+		try {
+			Puzzles.engine(puzzle, SearchStrategy.A_STAR)
+					.withCheckpoints(file, INTERVAL)
+					.withMaxExplosions(INTERVAL * 3).solve();
+			Files.delete(resumedFile);
+
+			Puzzles.engine(puzzle, SearchStrategy.A_STAR).resumingFrom(file)
+					.withCheckpoints(resumedFile, INTERVAL)
+					.withMaxExplosions(INTERVAL * 4 - 1).solve();
+			assertFalse(Files.exists(resumedFile));
+		} finally {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(resumedFile);
+		}
+	}
+
+	@Test
+	public void testResumedSearchKeepsItsTranspositionTable()
+			throws IOException {
+		Path file = Files.createTempFile("gps-checkpoint", ".bin");
+		Path resumedFile = Files.createTempFile("gps-checkpoint", ".bin");
+		try {
+			Puzzles.engine(puzzle, SearchStrategy.A_STAR)
+					.withCheckpoints(file, INTERVAL)
+					.withMaxExplosions(INTERVAL * 4).solve();
+			assertTrue(SearchCheckpoint.read(file, puzzle)
+					.getBestCostCount() > TABLE_CAPACITY);
+
+			Puzzles.engine(puzzle, SearchStrategy.A_STAR).resumingFrom(file)
+					.withTranspositionTable(TABLE_CAPACITY)
+					.withCheckpoints(resumedFile, INTERVAL)
+					.withMaxExplosions(INTERVAL * 5).solve();
+			assertTrue(SearchCheckpoint.read(resumedFile, puzzle)
+					.getBestCostCount() <= TABLE_CAPACITY);
+		} finally {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(resumedFile);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package ar.itba.edu.sia.tp1.gps.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleRule;
+import ar.itba.edu.sia.tp1.eight_puzzle.PuzzleState;
+
+public class SearchStatisticsTest {
+	@Test
+	public void testCollectsStatistics() {
+		GPSSolution<PuzzleRule, PuzzleState> solution = solve(
+				SearchStrategy.A_STAR, Puzzles.scrambled(3, 300));
+
+		assertTrue(solution.getStatistics().isPresent());
+		SearchStatistics<PuzzleRule, PuzzleState> statistics = solution
+				.getStatistics().get();
+		assertTrue(statistics.getMaxDepth() > 0);
+		assertEquals(solution.getExplosionCount(), expandedNodes(statistics));
+		assertTrue(statistics.getMaxFrontierSize() >= 1);
+		assertEquals(1, statistics.getGeneratedNodes(0));
+		assertEquals(1, statistics.getIterations());
+		// NOTE: the Manhattan distance is consistent
+		assertEquals(0, statistics.getReExpansions());
+	}
+
+	@Test
+	public void testCountsReExpansions() {
+		// IMPORTANT: DFS reaches many states through a longer path first
+		GPSSolution<PuzzleRule, PuzzleState> solution = solve(
+				SearchStrategy.DFS, Puzzles.scrambled(3, 300));
+		SearchStatistics<PuzzleRule, PuzzleState> statistics = solution
+				.getStatistics().get();
+
+		assertTrue(statistics.getReExpansions() > 0);
+		assertEquals(solution.getExplosionCount(), expandedNodes(statistics));
+	}
+
+	@Test
+	public void testCountsEveryIteration() {
+		GPSSolution<PuzzleRule, PuzzleState> solution = solve(
+				SearchStrategy.IDDFS, Puzzles.scrambled(3, 12));
+		SearchStatistics<PuzzleRule, PuzzleState> statistics = solution
+				.getStatistics().get();
+
+		assertEquals(solution.getCost() + 1, statistics.getIterations());
+		assertEquals(solution.getExplosionCount(), expandedNodes(statistics));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testRejectsStrategiesThatDoNotReportSteps() {
+		Puzzles.engine(Puzzles.puzzle(Puzzles.scrambled(3, 300)),
+				SearchStrategy.IDA_STAR).withStatistics().solve();
+	}
+
+	private static GPSSolution<PuzzleRule, PuzzleState> solve(
+			SearchStrategy strategy, PuzzleState initialState) {
+		return Puzzles.engine(Puzzles.puzzle(initialState), strategy)
+				.withStatistics().solve();
+	}
+
+	private static long expandedNodes(
+			SearchStatistics<PuzzleRule, PuzzleState> statistics) {
+		long expanded = 0;
+		for (int depth = 0; depth <= statistics.getMaxDepth(); depth++) {
+			expanded += statistics.getExpandedNodes(depth);
+		}
+		return expanded;
+	}
+}